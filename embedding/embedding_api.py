@@ -39,6 +39,16 @@ class EmbedResponse(BaseModel):
     vector: List[float]
     dimensions: int
 
+class BatchEmbedRequest(BaseModel):
+    """배치 벡터 생성 요청"""
+    texts: List[str]
+
+class BatchEmbedResponse(BaseModel):
+    """배치 벡터 생성 응답 (요청 순서와 동일)"""
+    vectors: List[List[float]]
+    dimensions: int
+    count: int
+
 @app.get("/")
 async def root():
     """API 정보"""
@@ -71,6 +81,26 @@ async def embed(request: EmbedRequest):
     except Exception as e:
         raise HTTPException(status_code=500, detail=f"벡터 생성 오류: {str(e)}")
 
+@app.post("/embed/batch", response_model=BatchEmbedResponse)
+async def embed_batch(request: BatchEmbedRequest):
+    """여러 텍스트를 한 번에 벡터로 변환 (Spring Boot 마이크로 배칭용)"""
+    if not request.texts:
+        raise HTTPException(status_code=400, detail="텍스트 목록이 비어있습니다")
+    if any(not text or not text.strip() for text in request.texts):
+        raise HTTPException(status_code=400, detail="빈 텍스트가 포함되어 있습니다")
+    
+    try:
+        # 한 번의 encode 호출로 배치 처리
+        vectors = model.encode(request.texts, batch_size=len(request.texts)).tolist()
+        
+        return BatchEmbedResponse(
+            vectors=vectors,
+            dimensions=len(vectors[0]),
+            count=len(vectors)
+        )
+    except Exception as e:
+        raise HTTPException(status_code=500, detail=f"배치 벡터 생성 오류: {str(e)}")
+
 if __name__ == "__main__":
     print("=" * 60)
     print("🚀 Embedding API 서버 시작")
@@ -78,5 +108,6 @@ if __name__ == "__main__":
     print(f"   모델: {MODEL_NAME}")
     print("=" * 60)
     
-    uvicorn.run(app, host="0.0.0.0", port=PORT)
+    # Spring Boot 커넥션 풀의 keep-alive(60초)보다 길게 유지해서 연결 재사용
+    uvicorn.run(app, host="0.0.0.0", port=PORT, timeout_keep_alive=75)
 
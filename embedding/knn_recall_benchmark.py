@@ -0,0 +1,195 @@
+#!/usr/bin/env python3
+"""
+kNN num_candidates 튜닝용 recall / 지연 시간 측정 스크립트
+
+1. 인덱스의 모든 벡터를 읽어 정확한(brute-force) 코사인 top-K를 정답으로 계산
+2. k × num_candidates 조합마다 Elasticsearch kNN 검색을 실행해 recall@K와 지연 시간 측정
+3. 목표 recall을 만족하는 최소 num_candidates로 Spring Boot 설정값(search.knn.*) 제안
+
+사용 예:
+    python knn_recall_benchmark.py --index products_korean
+    python knn_recall_benchmark.py --index csasi_consultation --ks 3,5,10 --queries 300
+    python knn_recall_benchmark.py --index products_korean --query-file queries.txt  # 실제 검색어 사용
+"""
+
+import argparse
+import random
+import sys
+import time
+
+import numpy as np
+from elasticsearch import Elasticsearch, helpers
+
+# 설정
+ES_HOST = "http://localhost:9200"
+MODEL_NAME = "jhgan/ko-sroberta-multitask"
+ES_MAX_CANDIDATES = 10000
+
+# 인덱스별 벡터 필드 / Spring Boot 설정 prefix
+INDEX_CONFIG = {
+    "products_korean": {"field": "name_vector", "prefix": "search.knn.products"},
+    "csasi_consultation": {"field": "content_vector", "prefix": "search.knn.consultation"},
+}
+
+
+def parse_ints(value):
+    return sorted({int(v) for v in value.split(",") if v.strip()})
+
+
+def load_vectors(es, index, field):
+    """인덱스의 모든 (문서 ID, 정규화 벡터) 조회"""
+    ids, vectors = [], []
+    for hit in helpers.scan(es, index=index, query={"query": {"exists": {"field": field}}},
+                            _source=[field], size=1000):
+        vector = hit["_source"].get(field)
+        if vector:
+            ids.append(hit["_id"])
+            vectors.append(vector)
+
+    matrix = np.asarray(vectors, dtype=np.float32)
+    norms = np.linalg.norm(matrix, axis=1, keepdims=True)
+    norms[norms == 0] = 1.0
+    return ids, matrix / norms
+
+
+def load_query_vectors(args, matrix):
+    """검색어 파일이 있으면 임베딩, 없으면 색인된 벡터 중 무작위 샘플을 질의로 사용"""
+    if args.query_file:
+        from sentence_transformers import SentenceTransformer
+
+        with open(args.query_file, encoding="utf-8") as f:
+            queries = [line.strip() for line in f if line.strip()]
+        print(f"🤖 검색어 {len(queries)}개 임베딩 중... ({MODEL_NAME})")
+        model = SentenceTransformer(MODEL_NAME)
+        vectors = model.encode(queries, normalize_embeddings=True)
+        return np.asarray(vectors, dtype=np.float32)
+
+    rng = random.Random(args.seed)
+    sample = rng.sample(range(len(matrix)), min(args.queries, len(matrix)))
+    return matrix[sample]
+
+
+def exact_top_k(matrix, ids, query_vectors, k):
+    """정확한 코사인 top-K 문서 ID (정답)"""
+    scores = query_vectors @ matrix.T
+    k = min(k, matrix.shape[0])
+    top = np.argpartition(-scores, k - 1, axis=1)[:, :k]
+    return [{ids[i] for i in row} for row in top]
+
+
+def run_knn(es, index, field, query_vector, k, num_candidates):
+    """kNN 검색 1회 → (문서 ID 집합, 왕복 지연 ms, ES took ms)"""
+    start = time.perf_counter()
+    response = es.search(
+        index=index,
+        knn={
+            "field": field,
+            "query_vector": query_vector.tolist(),
+            "k": k,
+            "num_candidates": num_candidates,
+        },
+        size=k,
+        source=False,
+    )
+    elapsed_ms = (time.perf_counter() - start) * 1000
+    return {hit["_id"] for hit in response["hits"]["hits"]}, elapsed_ms, response["took"]
+
+
+def percentile(values, p):
+    return float(np.percentile(values, p)) if values else 0.0
+
+
+def main():
+    parser = argparse.ArgumentParser(description="kNN num_candidates recall / 지연 시간 측정")
+    parser.add_argument("--host", default=ES_HOST)
+    parser.add_argument("--index", default="products_korean", choices=sorted(INDEX_CONFIG))
+    parser.add_argument("--field", help="벡터 필드 (기본: 인덱스별 설정)")
+    parser.add_argument("--ks", default="3,5,10,20,50", help="측정할 k 목록")
+    parser.add_argument("--candidates", default="10,20,40,60,100,150,200,300,500,1000",
+                        help="측정할 num_candidates 목록 (k 미만 값은 건너뜀)")
+    parser.add_argument("--queries", type=int, default=200, help="샘플 질의 수 (--query-file 미사용 시)")
+    parser.add_argument("--query-file", help="한 줄에 하나씩 실제 검색어가 담긴 파일")
+    parser.add_argument("--warmup", type=int, default=20, help="측정 전 워밍업 검색 수")
+    parser.add_argument("--target-recall", type=float, default=0.95)
+    parser.add_argument("--seed", type=int, default=42)
+    args = parser.parse_args()
+
+    field = args.field or INDEX_CONFIG[args.index]["field"]
+    ks = parse_ints(args.ks)
+    candidates = [c for c in parse_ints(args.candidates) if c <= ES_MAX_CANDIDATES]
+
+    print("=" * 72)
+    print(f"📏 kNN recall / 지연 시간 측정: index={args.index}, field={field}")
+    print("=" * 72)
+
+    es = Elasticsearch(args.host, verify_certs=False, request_timeout=60)
+    if not es.ping():
+        print(f"❌ Elasticsearch 연결 실패: {args.host}")
+        sys.exit(1)
+
+    # 1. 정답 계산용 전체 벡터
+    print("\n📦 벡터 조회 중...")
+    ids, matrix = load_vectors(es, args.index, field)
+    if not ids:
+        print(f"❌ '{field}' 벡터가 있는 문서가 없습니다")
+        sys.exit(1)
+    print(f"✅ {len(ids)}개 문서, {matrix.shape[1]}차원")
+
+    query_vectors = load_query_vectors(args, matrix)
+    print(f"🔎 질의 {len(query_vectors)}개")
+
+    # 2. 워밍업 (HNSW 그래프 / 페이지 캐시 적재)
+    for query_vector in query_vectors[:args.warmup]:
+        run_knn(es, args.index, field, query_vector, max(ks), min(ES_MAX_CANDIDATES, max(candidates)))
+
+    # 3. k × num_candidates 측정
+    print(f"\n{'k':>4} {'num_cand':>9} {'recall':>8} {'p50 ms':>8} {'p95 ms':>8} {'took p50':>9}")
+    print("-" * 52)
+
+    best = {}  # k → 목표 recall을 만족하는 최소 num_candidates
+    for k in ks:
+        truth = exact_top_k(matrix, ids, query_vectors, k)
+        expected = min(k, len(ids))
+        for num_candidates in candidates:
+            if num_candidates < k:
+                continue
+
+            recalls, latencies, tooks = [], [], []
+            for query_vector, truth_ids in zip(query_vectors, truth):
+                found, elapsed_ms, took = run_knn(es, args.index, field, query_vector, k, num_candidates)
+                recalls.append(len(found & truth_ids) / expected)
+                latencies.append(elapsed_ms)
+                tooks.append(took)
+
+            recall = float(np.mean(recalls))
+            print(f"{k:>4} {num_candidates:>9} {recall:>8.4f} {percentile(latencies, 50):>8.1f} "
+                  f"{percentile(latencies, 95):>8.1f} {percentile(tooks, 50):>9.1f}")
+
+            if recall >= args.target_recall and k not in best:
+                best[k] = num_candidates
+        print()
+
+    # 4. 설정값 제안
+    print("=" * 72)
+    print(f"🎯 목표 recall@K >= {args.target_recall}")
+    print("=" * 72)
+    for k in ks:
+        print(f"  k={k:>3}: " + (f"num_candidates={best[k]}" if k in best else "목표 미달 (후보 수를 늘려 재측정)"))
+
+    if not best:
+        sys.exit(1)
+
+    # floor는 작은 k를, ratio는 floor를 넘는 k를 만족하도록 (policy: max(ceil(k × ratio), floor) >= 최소값)
+    floor = min(best.values())
+    ratio = max([1.0] + [best[k] / k for k in best if best[k] > floor])
+    ceiling = max(best.values())
+    prefix = INDEX_CONFIG[args.index]["prefix"]
+
+    print("\n📝 application.properties 제안값:")
+    print(f"{prefix}.candidate-ratio={ratio:g}")
+    print(f"{prefix}.min-candidates={floor}")
+    print(f"{prefix}.max-candidates={ceiling}")
+
+
+if __name__ == "__main__":
+    main()
@@ -0,0 +1,109 @@
+package com.example.elasticsearch.config;
+
+import com.example.elasticsearch.service.RequestTiming;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 비동기 실행 설정
+ * - consultationExecutor: 상담 검색의 후처리 (컨텍스트 구성, 응답 캐시 저장)
+ * - orderExecutor: 상담 검색의 주문 조회 (Oracle JDBC, 커넥션 풀 크기에 맞춘 전용 풀 - 지연 시 다른 단계에 영향 없음)
+ * - streamingExecutor: SSE 스트리밍 요청의 검색 단계 실행 (톰캣 스레드는 즉시 반환)
+ * - searchExecutor: 비동기 RAG / Agent 요청의 블로킹 단계(임베딩 호출, 비동기 API가 없는 LLM) 실행
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Value("${consultation.executor.core-size:16}")
+    private int coreSize;
+
+    @Value("${consultation.executor.max-size:64}")
+    private int maxSize;
+
+    @Value("${consultation.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${order.executor.core-size:4}")
+    private int orderCoreSize;
+
+    @Value("${order.executor.max-size:4}")
+    private int orderMaxSize;
+
+    @Value("${order.executor.queue-capacity:20}")
+    private int orderQueueCapacity;
+
+    @Value("${streaming.executor.core-size:8}")
+    private int streamingCoreSize;
+
+    @Value("${streaming.executor.max-size:32}")
+    private int streamingMaxSize;
+
+    @Value("${streaming.executor.queue-capacity:100}")
+    private int streamingQueueCapacity;
+
+    @Value("${search.executor.core-size:16}")
+    private int searchCoreSize;
+
+    @Value("${search.executor.max-size:64}")
+    private int searchMaxSize;
+
+    @Value("${search.executor.queue-capacity:2000}")
+    private int searchQueueCapacity;
+
+    @Bean
+    public ThreadPoolTaskExecutor consultationExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("consultation-");
+        // 병렬 실행한 주문 조회 / 가이드 검색 시간도 요청별 내역에 포함
+        executor.setTaskDecorator(RequestTiming::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor orderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(orderCoreSize);
+        executor.setMaxPoolSize(orderMaxSize);
+        // 큐가 차면 즉시 거절 (호출 측은 "주문 정보 없음"으로 진행)
+        executor.setQueueCapacity(orderQueueCapacity);
+        executor.setThreadNamePrefix("order-");
+        executor.setTaskDecorator(RequestTiming::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor streamingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(streamingCoreSize);
+        executor.setMaxPoolSize(streamingMaxSize);
+        executor.setQueueCapacity(streamingQueueCapacity);
+        executor.setThreadNamePrefix("streaming-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor searchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(searchCoreSize);
+        executor.setMaxPoolSize(searchMaxSize);
+        executor.setQueueCapacity(searchQueueCapacity);
+        executor.setThreadNamePrefix("search-");
+        executor.setTaskDecorator(RequestTiming::propagate);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.elasticsearch.config;
+
+import com.example.elasticsearch.service.RequestTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * X-Debug-Timing: true 요청에만 단계별 처리 시간 수집 시작
+ * 헤더가 없는 요청은 필터를 건너뛰므로 RequestTiming 기록 호출은 모두 no-op
+ */
+@Component
+public class DebugTimingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String header = request.getHeader(RequestTiming.HEADER);
+        return !("true".equalsIgnoreCase(header) || "1".equals(header));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTiming.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTiming.clear();
+        }
+    }
+}
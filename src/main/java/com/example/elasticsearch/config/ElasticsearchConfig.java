@@ -2,27 +2,173 @@ package com.example.elasticsearch.config;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.http.HttpHost;
+import org.apache.http.HttpRequestInterceptor;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.elasticsearch.client.Node;
+import org.elasticsearch.client.NodeSelector;
 import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.sniff.ElasticsearchNodesSniffer;
+import org.elasticsearch.client.sniff.NodesSniffer;
+import org.elasticsearch.client.sniff.SniffOnFailureListener;
+import org.elasticsearch.client.sniff.Sniffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Elasticsearch 클라이언트 설정
+ * - spring.elasticsearch.uris의 모든 노드로 라운드로빈 요청, 실패 노드는 일정 시간 제외 후 재시도 (장애 조치)
+ * - 커넥션 풀 / 타임아웃 / keep-alive, 요청 본문 gzip 압축 (kNN 쿼리 벡터)
+ * - 노드 스니핑 (선택): 클러스터의 데이터 노드 목록을 주기적으로, 그리고 노드 실패 직후 다시 조회
+ * - 노드별 요청/실패 수와 사용 가능 노드 수를 rag.es.* 메트릭으로 노출
+ */
 @Configuration
 public class ElasticsearchConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(ElasticsearchConfig.class);
+
+    @Value("${spring.elasticsearch.uris:http://localhost:9200}")
+    private String[] uris;
+
+    @Value("${elasticsearch.http.max-connections:100}")
+    private int maxConnections;
+
+    @Value("${elasticsearch.http.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${elasticsearch.http.connect-timeout-ms:1000}")
+    private int connectTimeoutMs;
+
+    @Value("${elasticsearch.http.connection-request-timeout-ms:1000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${elasticsearch.http.socket-timeout-ms:30000}")
+    private int socketTimeoutMs;
+
+    @Value("${elasticsearch.http.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${elasticsearch.http.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${elasticsearch.sniffer.enabled:false}")
+    private boolean snifferEnabled;
+
+    @Value("${elasticsearch.sniffer.interval-ms:300000}")
+    private int sniffIntervalMs;
+
+    @Value("${elasticsearch.sniffer.after-failure-delay-ms:30000}")
+    private int sniffAfterFailureDelayMs;
+
+    // 노드 실패 시 즉시 재스니핑 (Sniffer 생성 후 연결, 그 전의 실패는 무시)
+    private final SniffOnFailureListener sniffOnFailureListener = new SniffOnFailureListener();
+    private volatile boolean sniffOnFailureReady;
+
+    @Bean(destroyMethod = "close")
+    public RestClient elasticsearchRestClient(MeterRegistry meterRegistry) {
+        HttpHost[] hosts = Arrays.stream(uris)
+                .map(String::trim)
+                .filter(uri -> !uri.isEmpty())
+                .map(HttpHost::create)
+                .toArray(HttpHost[]::new);
+
+        // 요청이 실제로 전달된 노드 (노드 선택 분포 확인용)
+        HttpRequestInterceptor nodeRequestCounter = (request, context) -> {
+            HttpHost target = HttpClientContext.adapt(context).getTargetHost();
+            if (target != null) {
+                meterRegistry.counter("rag.es.node.requests", "node", target.toHostString()).increment();
+            }
+        };
+
+        RestClient restClient = RestClient.builder(hosts)
+                .setNodeSelector(NodeSelector.SKIP_DEDICATED_MASTERS)
+                .setCompressionEnabled(compressionEnabled)
+                .setFailureListener(new RestClient.FailureListener() {
+                    @Override
+                    public void onFailure(Node node) {
+                        meterRegistry.counter("rag.es.node.failures", "node", node.getHost().toHostString()).increment();
+                        log.warn("⚠️ Elasticsearch 노드 요청 실패, 일시 제외: {}", node.getHost());
+                        if (sniffOnFailureReady) {
+                            sniffOnFailureListener.onFailure(node);
+                        }
+                    }
+                })
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                        .setConnectTimeout(connectTimeoutMs)
+                        .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                        .setSocketTimeout(socketTimeoutMs))
+                .setHttpClientConfigCallback(httpClient -> httpClient
+                        .setMaxConnTotal(maxConnections)
+                        .setMaxConnPerRoute(maxConnectionsPerRoute)
+                        .setKeepAliveStrategy((response, context) -> TimeUnit.SECONDS.toMillis(keepAliveSeconds))
+                        .addInterceptorLast(nodeRequestCounter))
+                .build();
+
+        Gauge.builder("rag.es.nodes", restClient, client -> client.getNodes().size())
+                .description("요청 대상 Elasticsearch 노드 수 (스니핑 반영)")
+                .register(meterRegistry);
+
+        log.info("🔌 Elasticsearch 노드: {}, 압축={}, 스니핑={}", Arrays.toString(hosts), compressionEnabled, snifferEnabled);
+        return restClient;
+    }
+
+    /**
+     * 노드 스니퍼 (elasticsearch.sniffer.enabled=true일 때만)
+     * 로컬 docker 단일 노드는 컨테이너 내부 주소가 조회되므로 끄고 사용
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "elasticsearch.sniffer.enabled", havingValue = "true")
+    public Sniffer elasticsearchSniffer(RestClient elasticsearchRestClient) {
+        ElasticsearchNodesSniffer.Scheme scheme = "https".equalsIgnoreCase(
+                elasticsearchRestClient.getNodes().get(0).getHost().getSchemeName())
+                ? ElasticsearchNodesSniffer.Scheme.HTTPS
+                : ElasticsearchNodesSniffer.Scheme.HTTP;
+        NodesSniffer nodesSniffer = new ElasticsearchNodesSniffer(
+                elasticsearchRestClient,
+                ElasticsearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT,
+                scheme);
+
+        Sniffer sniffer = Sniffer.builder(elasticsearchRestClient)
+                .setNodesSniffer(nodesSniffer)
+                .setSniffIntervalMillis(sniffIntervalMs)
+                .setSniffAfterFailureDelayMillis(sniffAfterFailureDelayMs)
+                .build();
+        sniffOnFailureListener.setSniffer(sniffer);
+        sniffOnFailureReady = true;
+        return sniffer;
+    }
+
     @Bean
-    public ElasticsearchClient elasticsearchClient() {
-        RestClient restClient = RestClient.builder(
-                new HttpHost("localhost", 9200, "http")
-        ).build();
-
-        RestClientTransport transport = new RestClientTransport(
-                restClient,
-                new JacksonJsonpMapper()
+    public ElasticsearchTransport elasticsearchTransport(RestClient elasticsearchRestClient) {
+        // 대화 히스토리의 LocalDateTime을 ISO-8601 문자열로 직렬화 (ES date 필드)
+        ObjectMapper objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+        return new RestClientTransport(
+                elasticsearchRestClient,
+                new JacksonJsonpMapper(objectMapper)
         );
+    }
 
-        return new ElasticsearchClient(transport);
+    @Bean
+    public ElasticsearchClient elasticsearchClient(ElasticsearchTransport elasticsearchTransport) {
+        return new ElasticsearchClient(elasticsearchTransport);
     }
 }
-
@@ -0,0 +1,88 @@
+package com.example.elasticsearch.config;
+
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * 임베딩 API(Python) 전용 HTTP 클라이언트 설정
+ * 커넥션 풀 + keep-alive + 유휴 커넥션 정리 + 타임아웃
+ */
+@Configuration
+public class EmbeddingClientConfig {
+
+    @Value("${embedding.http.max-connections:64}")
+    private int maxConnections;
+
+    @Value("${embedding.http.max-connections-per-route:64}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${embedding.http.connect-timeout-ms:500}")
+    private long connectTimeoutMs;
+
+    @Value("${embedding.http.connection-request-timeout-ms:1000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${embedding.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${embedding.http.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${embedding.http.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${embedding.http.time-to-live-minutes:10}")
+    private long timeToLiveMinutes;
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient embeddingHttpClient() {
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setTimeToLive(TimeValue.ofMinutes(timeToLiveMinutes))
+                // 서버가 먼저 끊은 keep-alive 커넥션을 재사용하지 않도록 검증
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(connectionConfig)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                // 풀에서 커넥션을 빌릴 때 대기 한도
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build();
+
+        ConnectionKeepAliveStrategy keepAliveStrategy =
+                (response, context) -> TimeValue.ofSeconds(keepAliveSeconds);
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate embeddingRestTemplate(@Qualifier("embeddingHttpClient") CloseableHttpClient embeddingHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(embeddingHttpClient));
+    }
+}
@@ -3,16 +3,20 @@ package com.example.elasticsearch.controller;
 import com.example.elasticsearch.dto.AgentRequest;
 import com.example.elasticsearch.dto.AgentResponse;
 import com.example.elasticsearch.entity.ChatHistory;
+import com.example.elasticsearch.service.AbstractVectorSearchService;
 import com.example.elasticsearch.service.AgentService;
 import com.example.elasticsearch.service.ChatHistoryService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * AI Agent REST API 컨트롤러
@@ -36,34 +40,64 @@ public class AgentController {
      * 채팅 요청 처리
      */
     @PostMapping("/chat")
-    public ResponseEntity<AgentResponse> chat(@RequestBody AgentRequest request) {
+    public CompletableFuture<ResponseEntity<AgentResponse>> chat(@RequestBody AgentRequest request) {
         logger.info("💬 채팅 요청: question='{}', topK={}", 
             request.getQuestion(), request.getTopK());
         
-        try {
-            // 입력 검증
-            if (request.getQuestion() == null || request.getQuestion().trim().isEmpty()) {
-                logger.warn("⚠️ 빈 질문 요청");
-                return ResponseEntity.badRequest().build();
-            }
-            
-            // topK 기본값 설정
-            if (request.getTopK() == null || request.getTopK() < 1) {
-                request.setTopK(5);
-            }
-            
-            // Agent 처리
-            AgentResponse response = agentService.chat(request);
-            
-            logger.info("✅ 채팅 응답 성공 ({}ms)", response.getResponseTime());
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            logger.error("❌ 채팅 처리 실패: {}", e.getMessage(), e);
-            return ResponseEntity
-                .status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .build();
+        // 입력 검증
+        if (request.getQuestion() == null || request.getQuestion().trim().isEmpty()) {
+            logger.warn("⚠️ 빈 질문 요청");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().<AgentResponse>build());
         }
+        
+        // topK 기본값 설정
+        if (request.getTopK() == null || request.getTopK() < 1) {
+            request.setTopK(5);
+        }
+        if (!AbstractVectorSearchService.isValidTopK(request.getTopK())) {
+            logger.warn("⚠️ topK 범위 초과 (최대 {}): {}", AbstractVectorSearchService.MAX_TOP_K, request.getTopK());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().<AgentResponse>build());
+        }
+        
+        // Agent 처리 (비동기, 톰캣 스레드는 LLM 응답을 기다리지 않고 반환)
+        return agentService.chatAsync(request)
+            .thenApply(response -> {
+                logger.info("✅ 채팅 응답 성공 ({}ms)", response.getResponseTime());
+                return ResponseEntity.ok(response);
+            })
+            .exceptionally(e -> {
+                logger.error("❌ 채팅 처리 실패: {}", e.getMessage(), e);
+                return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .build();
+            });
+    }
+    
+    /**
+     * 채팅 요청 처리 (SSE 스트리밍)
+     * 이벤트: retrieval(검색 결과) → token(LLM 토큰, 반복) → done(응답 시간) / error
+     */
+    @PostMapping(value = "/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> chatStream(@RequestBody AgentRequest request) {
+        logger.info("💬 채팅 스트리밍 요청: question='{}', topK={}", 
+            request.getQuestion(), request.getTopK());
+        
+        // 입력 검증
+        if (request.getQuestion() == null || request.getQuestion().trim().isEmpty()) {
+            logger.warn("⚠️ 빈 질문 요청");
+            return ResponseEntity.badRequest().build();
+        }
+        
+        // topK 기본값 설정
+        if (request.getTopK() == null || request.getTopK() < 1) {
+            request.setTopK(5);
+        }
+        if (!AbstractVectorSearchService.isValidTopK(request.getTopK())) {
+            logger.warn("⚠️ topK 범위 초과 (최대 {}): {}", AbstractVectorSearchService.MAX_TOP_K, request.getTopK());
+            return ResponseEntity.badRequest().build();
+        }
+        
+        return ResponseEntity.ok(agentService.chatStream(request));
     }
     
     /**
@@ -2,11 +2,20 @@ package com.example.elasticsearch.controller;
 
 import com.example.elasticsearch.dto.ConsultationRequest;
 import com.example.elasticsearch.dto.ConsultationResponse;
+import com.example.elasticsearch.dto.OrderInfo;
+import com.example.elasticsearch.dto.SearchMode;
+import com.example.elasticsearch.service.AbstractVectorSearchService;
 import com.example.elasticsearch.service.ConsultationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 상담 가이드 검색 API 컨트롤러
@@ -26,12 +35,14 @@ public class ConsultationController {
      * @return 검색 결과 및 컨텍스트
      */
     @PostMapping("/search")
-    public ResponseEntity<ConsultationResponse> searchPost(@RequestBody ConsultationRequest request) {
+    public CompletableFuture<ResponseEntity<ConsultationResponse>> searchPost(@RequestBody ConsultationRequest request) {
         log.info("POST /api/consultation/search - query: {}, topK: {}", 
                 request.getQuery(), request.getTopK());
         
-        ConsultationResponse response = consultationService.search(request);
-        return ResponseEntity.ok(response);
+        if (invalidTopK(request.getTopK())) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().<ConsultationResponse>build());
+        }
+        return consultationService.searchAsync(request).thenApply(ResponseEntity::ok);
     }
     
     /**
@@ -40,20 +51,79 @@ public class ConsultationController {
      * @param topK 검색 개수 (기본 5)
      * @param ordNo 주문번호 (선택)
      * @param ordItemSeq 상품순번 (선택)
+     * @param mode 검색 모드 (선택: vector, text, hybrid_linear, hybrid_rrf, 그 외 값은 400)
      * @return 검색 결과 및 컨텍스트
      */
     @GetMapping("/search")
-    public ResponseEntity<ConsultationResponse> searchGet(
+    public CompletableFuture<ResponseEntity<ConsultationResponse>> searchGet(
             @RequestParam String query,
             @RequestParam(defaultValue = "5") Integer topK,
             @RequestParam(required = false) String ordNo,
-            @RequestParam(required = false) Integer ordItemSeq) {
-        log.info("GET /api/consultation/search - query: {}, topK: {}, ordNo: {}, ordItemSeq: {}", 
-                query, topK, ordNo, ordItemSeq);
+            @RequestParam(required = false) Integer ordItemSeq,
+            @RequestParam(required = false) String mode) {
+        log.info("GET /api/consultation/search - query: {}, topK: {}, ordNo: {}, ordItemSeq: {}, mode: {}", 
+                query, topK, ordNo, ordItemSeq, mode);
         
+        if (invalidTopK(topK)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().<ConsultationResponse>build());
+        }
         ConsultationRequest request = new ConsultationRequest(query, topK, ordNo, ordItemSeq);
-        ConsultationResponse response = consultationService.search(request);
-        return ResponseEntity.ok(response);
+        try {
+            request.setMode(SearchMode.from(mode));
+        } catch (IllegalArgumentException e) {
+            log.warn("검색 모드 오류: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().<ConsultationResponse>build());
+        }
+        return consultationService.searchAsync(request).thenApply(ResponseEntity::ok);
+    }
+    
+    /**
+     * 상담 가이드 RAG 검색 + AI 응답 스트리밍 (POST, SSE)
+     * 이벤트: retrieval(검색 결과) → token(LLM 토큰, 반복) → done(응답 시간) / error
+     * @param request 검색 요청
+     * @return SSE 스트림
+     */
+    @PostMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> searchStreamPost(@RequestBody ConsultationRequest request) {
+        log.info("POST /api/consultation/search/stream - query: {}, topK: {}", 
+                request.getQuery(), request.getTopK());
+        
+        if (invalidTopK(request.getTopK())) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(consultationService.searchStream(request));
+    }
+    
+    /**
+     * 상담 가이드 RAG 검색 + AI 응답 스트리밍 (GET, 브라우저 EventSource용)
+     * @param query 검색 질문
+     * @param topK 검색 개수 (기본 5)
+     * @param ordNo 주문번호 (선택)
+     * @param ordItemSeq 상품순번 (선택)
+     * @param mode 검색 모드 (선택)
+     * @return SSE 스트림
+     */
+    @GetMapping(value = "/search/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> searchStreamGet(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "5") Integer topK,
+            @RequestParam(required = false) String ordNo,
+            @RequestParam(required = false) Integer ordItemSeq,
+            @RequestParam(required = false) String mode) {
+        log.info("GET /api/consultation/search/stream - query: {}, topK: {}, ordNo: {}, ordItemSeq: {}, mode: {}", 
+                query, topK, ordNo, ordItemSeq, mode);
+        
+        if (invalidTopK(topK)) {
+            return ResponseEntity.badRequest().build();
+        }
+        ConsultationRequest request = new ConsultationRequest(query, topK, ordNo, ordItemSeq);
+        try {
+            request.setMode(SearchMode.from(mode));
+        } catch (IllegalArgumentException e) {
+            log.warn("검색 모드 오류: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(consultationService.searchStream(request));
     }
     
     /**
@@ -68,11 +138,83 @@ public class ConsultationController {
             @RequestParam(defaultValue = "5") Integer topK) {
         log.info("GET /api/consultation/search/text - query: {}, topK: {}", query, topK);
         
+        if (invalidTopK(topK)) {
+            return ResponseEntity.badRequest().build();
+        }
         ConsultationRequest request = new ConsultationRequest(query, topK, null, null);
         ConsultationResponse response = consultationService.textSearch(request);
         return ResponseEntity.ok(response);
     }
     
+    /**
+     * 주문 상품 일괄 조회 (한 번의 쿼리)
+     * 예: /api/consultation/orders?ordNo=A&ordNo=B 또는 ?ordNo=A&ordItemSeq=1&ordItemSeq=3
+     * @param ordNo 주문번호 (여러 개 가능)
+     * @param ordItemSeq 상품순번 (선택, 여러 개 가능, 없으면 전체 상품)
+     * @return 주문 상품 목록 (주문번호/상품순번이 order.query.max-orders를 넘으면 400)
+     */
+    @GetMapping("/orders")
+    public ResponseEntity<List<OrderInfo>> getOrderItems(
+            @RequestParam List<String> ordNo,
+            @RequestParam(required = false) List<Integer> ordItemSeq) {
+        log.info("GET /api/consultation/orders - ordNo: {}, ordItemSeq: {}", ordNo, ordItemSeq);
+        
+        try {
+            return ResponseEntity.ok(consultationService.getOrderItems(ordNo, ordItemSeq));
+        } catch (IllegalArgumentException e) {
+            log.warn("주문 상품 조회 요청 오류: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * 상담 가이드 재색인 시 해당 가이드를 참조한 AI 응답 캐시 무효화
+     * @param csasiId 상담 가이드 ID
+     * @return 삭제된 캐시 수
+     */
+    @DeleteMapping("/cache/guides/{csasiId}")
+    public ResponseEntity<Map<String, Object>> invalidateGuideCache(@PathVariable String csasiId) {
+        log.info("DELETE /api/consultation/cache/guides/{}", csasiId);
+        
+        int removed = consultationService.invalidateGuideCache(csasiId);
+        return ResponseEntity.ok(Map.of("csasiId", csasiId, "removed", removed));
+    }
+    
+    /**
+     * 주문 상태 변경 시 해당 주문의 캐시된 주문 정보 / AI 응답 무효화
+     * 주문 시스템의 상태 변경 훅에서 호출 (DELETE / POST 모두 허용)
+     * @param ordNo 주문번호
+     * @return 삭제된 캐시 수
+     */
+    @RequestMapping(value = "/cache/orders/{ordNo}", method = {RequestMethod.DELETE, RequestMethod.POST})
+    public ResponseEntity<Map<String, Object>> invalidateOrderCache(@PathVariable String ordNo) {
+        log.info("DELETE/POST /api/consultation/cache/orders/{}", ordNo);
+        
+        Map<String, Integer> removed = consultationService.invalidateOrderCache(ordNo);
+        return ResponseEntity.ok(Map.of("ordNo", ordNo, "removed", removed));
+    }
+    
+    /**
+     * AI 응답 캐시 전체 삭제
+     * @return OK
+     */
+    @DeleteMapping("/cache")
+    public ResponseEntity<String> clearCache() {
+        log.info("DELETE /api/consultation/cache");
+        
+        consultationService.clearCache();
+        return ResponseEntity.ok("OK");
+    }
+    
+    /**
+     * AI 응답 캐시 통계
+     * @return hit/miss/eviction 통계
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(consultationService.getCacheStats());
+    }
+    
     /**
      * 헬스 체크
      * @return OK
@@ -81,5 +223,15 @@ public class ConsultationController {
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("Consultation API is running");
     }
+    
+    /**
+     * topK 범위 검증 (1 ~ 10000, ES kNN 제약) - 범위 밖이면 400
+     */
+    private boolean invalidTopK(Integer topK) {
+        if (AbstractVectorSearchService.isValidTopK(topK)) {
+            return false;
+        }
+        log.warn("topK 범위 초과 (1 ~ {}): {}", AbstractVectorSearchService.MAX_TOP_K, topK);
+        return true;
+    }
 }
-
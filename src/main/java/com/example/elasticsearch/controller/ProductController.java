@@ -1,13 +1,18 @@
 package com.example.elasticsearch.controller;
 
+import com.example.elasticsearch.dto.BulkIngestResponse;
 import com.example.elasticsearch.entity.Product;
+import com.example.elasticsearch.service.AbstractVectorSearchService;
+import com.example.elasticsearch.service.ProductBulkService;
 import com.example.elasticsearch.service.ProductService;
 import com.example.elasticsearch.service.VectorSearchService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,11 +22,14 @@ public class ProductController {
 
     private final ProductService productService;
     private final VectorSearchService vectorSearchService;
+    private final ProductBulkService productBulkService;
 
     @Autowired
-    public ProductController(ProductService productService, VectorSearchService vectorSearchService) {
+    public ProductController(ProductService productService, VectorSearchService vectorSearchService,
+                             ProductBulkService productBulkService) {
         this.productService = productService;
         this.vectorSearchService = vectorSearchService;
+        this.productBulkService = productBulkService;
     }
 
     @PostMapping
@@ -30,6 +38,17 @@ public class ProductController {
         return new ResponseEntity<>(saved, HttpStatus.CREATED);
     }
 
+    /**
+     * 상품 대량 적재 (JSON 배열 또는 NDJSON)
+     * 본문을 스트리밍으로 읽으므로 요청 크기와 무관하게 메모리 사용량 일정
+     */
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkIngestResponse> bulkIngest(InputStream body) {
+        BulkIngestResponse result = productBulkService.ingest(body);
+        HttpStatus status = result.getError() != null ? HttpStatus.BAD_REQUEST : HttpStatus.OK;
+        return new ResponseEntity<>(result, status);
+    }
+
     @GetMapping
     public ResponseEntity<List<Product>> getAllProducts() {
         List<Product> products = productService.getAllProducts();
@@ -84,6 +103,9 @@ public class ProductController {
     public ResponseEntity<List<Product>> vectorSearch(
             @RequestParam String query,
             @RequestParam(defaultValue = "5") int topK) {
+        if (!AbstractVectorSearchService.isValidTopK(topK)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
         try {
             List<Product> products = vectorSearchService.vectorSearch(query, topK);
             return new ResponseEntity<>(products, HttpStatus.OK);
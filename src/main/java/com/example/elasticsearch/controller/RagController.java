@@ -1,7 +1,12 @@
 package com.example.elasticsearch.controller;
 
+import com.example.elasticsearch.dto.RagBatchRequest;
+import com.example.elasticsearch.dto.RagBatchResponse;
 import com.example.elasticsearch.dto.RagRequest;
 import com.example.elasticsearch.dto.RagResponse;
+import com.example.elasticsearch.dto.SearchMode;
+import com.example.elasticsearch.service.AbstractVectorSearchService;
+import com.example.elasticsearch.service.EmbeddingService;
 import com.example.elasticsearch.service.RagService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +14,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * RAG API 컨트롤러
  * MCP 서버에서 호출할 RAG 검색 엔드포인트
@@ -21,9 +29,11 @@ public class RagController {
     private static final Logger logger = LoggerFactory.getLogger(RagController.class);
     
     private final RagService ragService;
+    private final EmbeddingService embeddingService;
     
-    public RagController(RagService ragService) {
+    public RagController(RagService ragService, EmbeddingService embeddingService) {
         this.ragService = ragService;
+        this.embeddingService = embeddingService;
     }
     
     /**
@@ -33,7 +43,12 @@ public class RagController {
      * Request Body:
      * {
      *   "query": "무선 이어폰 추천해줘",
-     *   "topK": 5
+     *   "topK": 5,             // 1 ~ 10000 (범위 밖이면 400)
+     *   "mode": "HYBRID_RRF",  // 선택: VECTOR(기본), TEXT, HYBRID_LINEAR, HYBRID_RRF (그 외 값은 400)
+     *   "category": "전자제품", // 선택: 검색 필터 (kNN filter 절로 적용, 필터 후에도 topK개 채움)
+     *   "minPrice": 10000,     // 선택
+     *   "maxPrice": 300000,    // 선택
+     *   "inStock": true        // 선택: 재고 있는 상품만
      * }
      * 
      * Response:
@@ -45,43 +60,129 @@ public class RagController {
      * }
      */
     @PostMapping("/search")
-    public ResponseEntity<RagResponse> search(@RequestBody RagRequest request) {
+    public CompletableFuture<ResponseEntity<RagResponse>> search(@RequestBody RagRequest request) {
         logger.info("RAG 검색 요청: {}", request);
         
-        try {
-            // 입력 검증
-            if (request.getQuery() == null || request.getQuery().trim().isEmpty()) {
-                logger.warn("검색어가 비어있음");
-                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-            }
-            
-            // RAG 검색 실행
-            RagResponse response = ragService.search(request);
-            
-            logger.info("RAG 검색 성공: {}개 결과", response.getCount());
-            return new ResponseEntity<>(response, HttpStatus.OK);
-            
-        } catch (Exception e) {
-            logger.error("RAG 검색 실패: {}", e.getMessage(), e);
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        // 입력 검증
+        if (request.getQuery() == null || request.getQuery().trim().isEmpty()) {
+            logger.warn("검색어가 비어있음");
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        if (!AbstractVectorSearchService.isValidTopK(request.getTopK())) {
+            logger.warn("topK 범위 초과 (1 ~ {}): {}", AbstractVectorSearchService.MAX_TOP_K, request.getTopK());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
         }
+        
+        // RAG 검색 실행 (비동기, 톰캣 스레드는 결과를 기다리지 않고 반환)
+        return ragService.searchAsync(request)
+            .thenApply(response -> {
+                logger.info("RAG 검색 성공: {}개 결과", response.getCount());
+                return new ResponseEntity<>(response, HttpStatus.OK);
+            })
+            .exceptionally(e -> {
+                logger.error("RAG 검색 실패: {}", e.getMessage(), e);
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            });
     }
     
     /**
      * GET 방식 RAG 검색 (간단한 테스트용)
-     * GET /api/rag/search?query=노트북&topK=3
+     * GET /api/rag/search?query=노트북&topK=3&mode=hybrid_rrf&category=전자제품&maxPrice=1500000&inStock=true
      */
     @GetMapping("/search")
-    public ResponseEntity<RagResponse> searchGet(
+    public CompletableFuture<ResponseEntity<RagResponse>> searchGet(
             @RequestParam String query,
-            @RequestParam(defaultValue = "5") Integer topK) {
+            @RequestParam(defaultValue = "5") Integer topK,
+            @RequestParam(required = false) String mode,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Boolean inStock) {
         
-        logger.info("RAG 검색 요청 (GET): query={}, topK={}", query, topK);
+        logger.info("RAG 검색 요청 (GET): query={}, topK={}, mode={}", query, topK, mode);
         
         RagRequest request = new RagRequest(query, topK);
+        try {
+            request.setMode(SearchMode.from(mode));
+        } catch (IllegalArgumentException e) {
+            logger.warn("RAG 검색 요청 오류: {}", e.getMessage());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        request.setCategory(category);
+        request.setMinPrice(minPrice);
+        request.setMaxPrice(maxPrice);
+        request.setInStock(inStock);
         return search(request);
     }
     
+    /**
+     * RAG 배치 검색 API
+     * POST /api/rag/search/batch
+     * 
+     * VECTOR 모드는 검색어 전체를 한 번의 임베딩 배치 호출 + 한 번의 Elasticsearch msearch로 처리,
+     * 그 외 모드는 검색어별 검색을 병렬 실행. 모드 / 필터는 모든 검색어에 같이 적용
+     * 
+     * Request Body:
+     * {
+     *   "queries": ["무선 이어폰 추천해줘", "가벼운 노트북"],
+     *   "topK": 5,             // 검색어별, 1 ~ 10000 (범위 밖이면 400)
+     *   "mode": "VECTOR",      // 선택: VECTOR(기본), TEXT, HYBRID_LINEAR, HYBRID_RRF
+     *   "category": "전자제품", // 선택: 검색 필터 (단건 검색과 동일)
+     *   "minPrice": 10000,     // 선택
+     *   "maxPrice": 300000,    // 선택
+     *   "inStock": true        // 선택: 재고 있는 상품만
+     * }
+     * 
+     * Response:
+     * {
+     *   "results": [ { "query": ..., "context": ..., "products": [...], "count": 5 }, ... ],  // 요청 순서
+     *   "count": 2,
+     *   "failed": 0,       // 실패한 검색어는 results[i].error 에 사유
+     *   "responseTime": 85
+     * }
+     */
+    @PostMapping("/search/batch")
+    public CompletableFuture<ResponseEntity<RagBatchResponse>> searchBatch(@RequestBody RagBatchRequest request) {
+        logger.info("RAG 배치 검색 요청: {}", request);
+        
+        // 입력 검증
+        if (request.getQueries().isEmpty()) {
+            logger.warn("검색어 목록이 비어있음");
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        if (!AbstractVectorSearchService.isValidTopK(request.getTopK())) {
+            logger.warn("topK 범위 초과 (1 ~ {}): {}", AbstractVectorSearchService.MAX_TOP_K, request.getTopK());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        
+        // RAG 배치 검색 실행 (비동기, 톰캣 스레드는 결과를 기다리지 않고 반환)
+        CompletableFuture<RagBatchResponse> future;
+        try {
+            future = ragService.searchBatchAsync(request);
+        } catch (IllegalArgumentException e) {
+            logger.warn("RAG 배치 검색 요청 오류: {}", e.getMessage());
+            return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        
+        return future
+            .thenApply(response -> new ResponseEntity<>(response, HttpStatus.OK))
+            .exceptionally(e -> {
+                logger.error("RAG 배치 검색 실패: {}", e.getMessage(), e);
+                return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+            });
+    }
+    
+    /**
+     * 질의 임베딩 캐시 통계
+     * GET /api/rag/cache/stats
+     */
+    @GetMapping("/cache/stats")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(embeddingService.getCacheStats());
+    }
+    
     /**
      * Health Check
      * GET /api/rag/health
@@ -20,5 +20,38 @@ public class AgentRequest {
      * 검색할 상품 개수 (기본값: 5)
      */
     private Integer topK = 5;
+    
+    /**
+     * 상품 검색 모드 (기본값: VECTOR)
+     */
+    private SearchMode mode = SearchMode.VECTOR;
+    
+    /**
+     * true면 LLM 응답 캐시를 사용하지 않고 새로 생성
+     */
+    private Boolean bypassCache = false;
+    
+    /**
+     * 상품 검색 필터: 카테고리 (정확히 일치, 선택)
+     */
+    private String category;
+    
+    /**
+     * 상품 검색 필터: 최소 / 최대 가격 (선택)
+     */
+    private Double minPrice;
+    private Double maxPrice;
+    
+    /**
+     * 상품 검색 필터: true면 재고가 있는 상품만
+     */
+    private Boolean inStock = false;
+    
+    /**
+     * 검색 필터 (kNN filter 절로 전달)
+     */
+    public ProductFilter toFilter() {
+        return ProductFilter.of(category, minPrice, maxPrice, inStock);
+    }
 }
 
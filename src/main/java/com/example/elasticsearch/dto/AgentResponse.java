@@ -1,11 +1,13 @@
 package com.example.elasticsearch.dto;
 
 import com.example.elasticsearch.entity.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Agent 채팅 응답 DTO
@@ -38,5 +40,19 @@ public class AgentResponse {
      * 응답 생성 시간 (ms)
      */
     private Long responseTime;
+    
+    /**
+     * 단계별 처리 시간 내역 (X-Debug-Timing 요청에만 포함)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> timings;
+    
+    public AgentResponse(String question, String answer, List<Product> products, String context, Long responseTime) {
+        this.question = question;
+        this.answer = answer;
+        this.products = products;
+        this.context = context;
+        this.responseTime = responseTime;
+    }
 }
 
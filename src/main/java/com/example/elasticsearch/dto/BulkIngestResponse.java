@@ -0,0 +1,110 @@
+package com.example.elasticsearch.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 상품 대량 적재 결과 DTO
+ * 실패 항목은 최대 max-failures 건까지만 상세 기록 (나머지는 failed 카운트로만 집계)
+ */
+public class BulkIngestResponse {
+
+    private long total;             // 요청에 포함된 상품 수
+    private long indexed;           // 색인 성공 수
+    private long failed;            // 색인 실패 수
+    private long withoutVector;     // 임베딩 실패로 벡터 없이 색인된 수
+    private long tookMs;            // 처리 시간 (ms)
+    private String error;           // 요청 중단 사유 (파싱 오류 등, 정상 완료 시 null)
+    private List<ItemFailure> failures = new ArrayList<>();
+
+    public BulkIngestResponse() {}
+
+    // Getters and Setters
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getIndexed() {
+        return indexed;
+    }
+
+    public void setIndexed(long indexed) {
+        this.indexed = indexed;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public long getWithoutVector() {
+        return withoutVector;
+    }
+
+    public void setWithoutVector(long withoutVector) {
+        this.withoutVector = withoutVector;
+    }
+
+    public long getTookMs() {
+        return tookMs;
+    }
+
+    public void setTookMs(long tookMs) {
+        this.tookMs = tookMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<ItemFailure> getFailures() {
+        return failures;
+    }
+
+    public void setFailures(List<ItemFailure> failures) {
+        this.failures = failures;
+    }
+
+    /**
+     * 개별 상품 색인 실패 정보
+     */
+    public static class ItemFailure {
+
+        private String id;
+        private String reason;
+
+        public ItemFailure() {}
+
+        public ItemFailure(String id, String reason) {
+            this.id = id;
+            this.reason = reason;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        public void setReason(String reason) {
+            this.reason = reason;
+        }
+    }
+}
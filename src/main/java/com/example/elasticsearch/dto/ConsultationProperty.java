@@ -22,5 +22,9 @@ public class ConsultationProperty {
     private Integer propSeq;
     
     private String content;
+    
+    public ConsultationProperty copy() {
+        return new ConsultationProperty(propId, propTypeCd, propSeq, content);
+    }
 }
 
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 상담 가이드 검색 요청 DTO
  */
@@ -16,6 +18,23 @@ public class ConsultationRequest {
     
     // 주문 정보 (고도화 1차)
     private String ordNo;           // 주문번호
-    private Integer ordItemSeq;     // 주문상품순번
+    private Integer ordItemSeq;     // 주문상품순번 (ordItemSeq/ordItemSeqs 모두 없으면 주문의 전체 상품)
+    private List<Integer> ordItemSeqs; // 주문상품순번 목록 (여러 상품 지정)
+    
+    // 검색 모드 (VECTOR, TEXT, HYBRID_LINEAR, HYBRID_RRF)
+    private SearchMode mode = SearchMode.VECTOR;
+    
+    // true면 LLM 응답 캐시를 사용하지 않고 새로 생성
+    private Boolean bypassCache = false;
+    
+    // 가이드 사용 여부 필터 (기본 Y: 사용 중인 가이드만, null/빈 값이면 전체)
+    private String useYn = "Y";
+    
+    public ConsultationRequest(String query, Integer topK, String ordNo, Integer ordItemSeq) {
+        this.query = query;
+        this.topK = topK;
+        this.ordNo = ordNo;
+        this.ordItemSeq = ordItemSeq;
+    }
 }
 
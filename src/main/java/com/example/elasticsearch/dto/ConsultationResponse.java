@@ -1,11 +1,13 @@
 package com.example.elasticsearch.dto;
 
 import com.example.elasticsearch.entity.Consultation;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 상담 가이드 검색 응답 DTO
@@ -21,6 +23,9 @@ public class ConsultationResponse {
     private String aiAnswer;  // Claude AI 응답
     private Long responseTime; // 응답 시간 (ms)
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> timings; // 단계별 처리 시간 (X-Debug-Timing 요청에만 포함)
+    
     public ConsultationResponse(String query, String context, List<Consultation> consultations) {
         this.query = query;
         this.context = context;
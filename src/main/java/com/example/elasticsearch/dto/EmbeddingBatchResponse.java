@@ -0,0 +1,38 @@
+package com.example.elasticsearch.dto;
+
+import java.util.List;
+
+/**
+ * 배치 임베딩 응답 DTO (Python /embed/batch)
+ * vectors는 요청한 texts와 같은 순서로 반환됨
+ */
+public class EmbeddingBatchResponse {
+    private List<float[]> vectors;
+    private Integer dimensions;
+    private Integer count;
+
+    // Getters and Setters
+    public List<float[]> getVectors() {
+        return vectors;
+    }
+
+    public void setVectors(List<float[]> vectors) {
+        this.vectors = vectors;
+    }
+
+    public Integer getDimensions() {
+        return dimensions;
+    }
+
+    public void setDimensions(Integer dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    public Integer getCount() {
+        return count;
+    }
+
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+}
@@ -1,10 +1,8 @@
 package com.example.elasticsearch.dto;
 
-import java.util.List;
-
 public class EmbeddingResponse {
     private String text;
-    private List<Float> vector;
+    private float[] vector;
     private Integer dimensions;
 
     // Getters and Setters
@@ -16,11 +14,11 @@ public class EmbeddingResponse {
         this.text = text;
     }
 
-    public List<Float> getVector() {
+    public float[] getVector() {
         return vector;
     }
 
-    public void setVector(List<Float> vector) {
+    public void setVector(float[] vector) {
         this.vector = vector;
     }
 
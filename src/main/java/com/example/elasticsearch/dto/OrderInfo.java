@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 주문 정보 DTO (Oracle ORD_ITEM 테이블)
  */
@@ -79,5 +81,51 @@ public class OrderInfo {
         
         return sb.toString();
     }
+    
+    /**
+     * 여러 상품 요약 (상품 1건이면 toSummary()와 동일)
+     * 다건 주문은 상품당 한 줄로 줄여 프롬프트 길이가 상품 수에 비례해 과하게 늘지 않도록 함
+     */
+    public static String toSummary(List<OrderInfo> items) {
+        if (items == null || items.isEmpty()) {
+            return "";
+        }
+        if (items.size() == 1) {
+            return items.get(0).toSummary();
+        }
+        
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("=== 주문 정보 (%d개 상품) ===\n", items.size()));
+        
+        long totalRlordAmt = 0;
+        for (OrderInfo item : items) {
+            sb.append(String.format("- [%s-%d] %s | %s(%s) | %s | %d개 | %,d원",
+                    item.ordNo, item.ordItemSeq,
+                    item.itemNm != null ? item.itemNm : "N/A",
+                    item.ordItemStatNm != null ? item.ordItemStatNm : "N/A", item.ordItemStatCd,
+                    item.shppMthdNm != null ? item.shppMthdNm : "N/A",
+                    item.ordQty != null ? item.ordQty : 0,
+                    item.rlordAmt != null ? item.rlordAmt : 0));
+            
+            if (item.cnclQty != null && item.cnclQty > 0) {
+                sb.append(String.format(" | 취소 %d개", item.cnclQty));
+            }
+            if (item.retQty != null && item.retQty > 0) {
+                sb.append(String.format(" | 반품 %d개", item.retQty));
+            }
+            if (item.clmRsnNm != null) {
+                sb.append(" | 클레임: ").append(item.clmRsnNm);
+                if (item.clmRsnCntt != null && !item.clmRsnCntt.isEmpty()) {
+                    sb.append(" - ").append(item.clmRsnCntt);
+                }
+            }
+            sb.append("\n");
+            
+            totalRlordAmt += item.rlordAmt != null ? item.rlordAmt : 0;
+        }
+        sb.append(String.format("- 실결제금액 합계: %,d원\n", totalRlordAmt));
+        
+        return sb.toString();
+    }
 }
 
@@ -0,0 +1,31 @@
+package com.example.elasticsearch.dto;
+
+/**
+ * 상품 검색 필터
+ * kNN filter / bool filter 로 Elasticsearch 에 전달되어, 조건을 만족하는 상품 안에서 top-K 검색
+ *
+ * @param category    카테고리 (정확히 일치, null이면 전체)
+ * @param minPrice    최소 가격 (이상, null이면 제한 없음)
+ * @param maxPrice    최대 가격 (이하, null이면 제한 없음)
+ * @param inStockOnly true면 재고가 있는 상품만
+ */
+public record ProductFilter(String category, Double minPrice, Double maxPrice, boolean inStockOnly) {
+
+    /**
+     * 필터 없음
+     */
+    public static final ProductFilter NONE = new ProductFilter(null, null, null, false);
+
+    public ProductFilter {
+        category = category != null && !category.isBlank() ? category.strip() : null;
+    }
+
+    public static ProductFilter of(String category, Double minPrice, Double maxPrice, Boolean inStock) {
+        ProductFilter filter = new ProductFilter(category, minPrice, maxPrice, Boolean.TRUE.equals(inStock));
+        return filter.isEmpty() ? NONE : filter;
+    }
+
+    public boolean isEmpty() {
+        return category == null && minPrice == null && maxPrice == null && !inStockOnly;
+    }
+}
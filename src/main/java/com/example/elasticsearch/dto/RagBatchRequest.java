@@ -0,0 +1,105 @@
+package com.example.elasticsearch.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RAG 배치 검색 요청 DTO
+ * 여러 검색어를 한 번에 검색 (오프라인 평가, 여러 질문을 가진 Agent 턴)
+ * 검색 모드 / 필터는 모든 검색어에 같이 적용
+ */
+public class RagBatchRequest {
+    
+    private List<String> queries = new ArrayList<>();  // 검색어 목록 (응답은 같은 순서)
+    private Integer topK;  // 검색어별 반환할 상품 수 (기본값: 5)
+    private SearchMode mode = SearchMode.VECTOR;  // 검색 모드
+    
+    // 검색 필터 (kNN filter 절로 전달, 모두 선택)
+    private String category;   // 카테고리 (정확히 일치)
+    private Double minPrice;   // 최소 가격
+    private Double maxPrice;   // 최대 가격
+    private Boolean inStock;   // true면 재고가 있는 상품만
+    
+    public RagBatchRequest() {
+        this.topK = 5;  // 기본값
+    }
+    
+    public RagBatchRequest(List<String> queries, Integer topK) {
+        this.queries = queries != null ? queries : new ArrayList<>();
+        this.topK = topK != null ? topK : 5;
+    }
+    
+    // Getters and Setters
+    public List<String> getQueries() {
+        return queries;
+    }
+    
+    public void setQueries(List<String> queries) {
+        this.queries = queries != null ? queries : new ArrayList<>();
+    }
+    
+    public Integer getTopK() {
+        return topK;
+    }
+    
+    public void setTopK(Integer topK) {
+        this.topK = topK != null ? topK : 5;
+    }
+    
+    public SearchMode getMode() {
+        return mode;
+    }
+    
+    public void setMode(SearchMode mode) {
+        this.mode = mode != null ? mode : SearchMode.VECTOR;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public Double getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public Boolean getInStock() {
+        return inStock;
+    }
+    
+    public void setInStock(Boolean inStock) {
+        this.inStock = inStock;
+    }
+    
+    /**
+     * 검색 필터 (kNN filter 절로 전달)
+     */
+    public ProductFilter toFilter() {
+        return ProductFilter.of(category, minPrice, maxPrice, inStock);
+    }
+    
+    @Override
+    public String toString() {
+        return "RagBatchRequest{" +
+                "queries=" + queries.size() +
+                ", topK=" + topK +
+                ", mode=" + mode +
+                ", filter=" + toFilter() +
+                '}';
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.elasticsearch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RAG 배치 검색 응답 DTO
+ * results는 요청 queries와 같은 순서, 실패한 검색어는 error가 채워지고 products는 비어 있음
+ */
+public class RagBatchResponse {
+    
+    private List<RagResponse> results;  // 검색어별 결과
+    private Integer count;              // 검색어 수
+    private Integer failed;             // 실패한 검색어 수
+    private Long responseTime;          // 전체 처리 시간 (ms)
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> timings; // 단계별 처리 시간 (X-Debug-Timing 요청에만 포함)
+    
+    public RagBatchResponse() {}
+    
+    public RagBatchResponse(List<RagResponse> results, Long responseTime) {
+        this.results = results;
+        this.count = results != null ? results.size() : 0;
+        this.failed = results != null ? (int) results.stream().filter(r -> r.getError() != null).count() : 0;
+        this.responseTime = responseTime;
+    }
+    
+    // Getters and Setters
+    public List<RagResponse> getResults() {
+        return results;
+    }
+    
+    public void setResults(List<RagResponse> results) {
+        this.results = results;
+    }
+    
+    public Integer getCount() {
+        return count;
+    }
+    
+    public void setCount(Integer count) {
+        this.count = count;
+    }
+    
+    public Integer getFailed() {
+        return failed;
+    }
+    
+    public void setFailed(Integer failed) {
+        this.failed = failed;
+    }
+    
+    public Long getResponseTime() {
+        return responseTime;
+    }
+    
+    public void setResponseTime(Long responseTime) {
+        this.responseTime = responseTime;
+    }
+    
+    public Map<String, Object> getTimings() {
+        return timings;
+    }
+    
+    public void setTimings(Map<String, Object> timings) {
+        this.timings = timings;
+    }
+    
+    @Override
+    public String toString() {
+        return "RagBatchResponse{" +
+                "count=" + count +
+                ", failed=" + failed +
+                ", responseTime=" + responseTime +
+                '}';
+    }
+}
@@ -7,6 +7,13 @@ public class RagRequest {
     
     private String query;  // 사용자 질문
     private Integer topK;  // 반환할 상품 수 (기본값: 5)
+    private SearchMode mode = SearchMode.VECTOR;  // 검색 모드
+    
+    // 검색 필터 (kNN filter 절로 전달, 모두 선택)
+    private String category;   // 카테고리 (정확히 일치)
+    private Double minPrice;   // 최소 가격
+    private Double maxPrice;   // 최대 가격
+    private Boolean inStock;   // true면 재고가 있는 상품만
     
     public RagRequest() {
         this.topK = 5;  // 기본값
@@ -34,11 +41,60 @@ public class RagRequest {
         this.topK = topK != null ? topK : 5;
     }
     
+    public SearchMode getMode() {
+        return mode;
+    }
+    
+    public void setMode(SearchMode mode) {
+        this.mode = mode != null ? mode : SearchMode.VECTOR;
+    }
+    
+    public String getCategory() {
+        return category;
+    }
+    
+    public void setCategory(String category) {
+        this.category = category;
+    }
+    
+    public Double getMinPrice() {
+        return minPrice;
+    }
+    
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+    
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+    
+    public Boolean getInStock() {
+        return inStock;
+    }
+    
+    public void setInStock(Boolean inStock) {
+        this.inStock = inStock;
+    }
+    
+    /**
+     * 검색 필터 (kNN filter 절로 전달)
+     */
+    public ProductFilter toFilter() {
+        return ProductFilter.of(category, minPrice, maxPrice, inStock);
+    }
+    
     @Override
     public String toString() {
         return "RagRequest{" +
                 "query='" + query + '\'' +
                 ", topK=" + topK +
+                ", mode=" + mode +
+                ", filter=" + toFilter() +
                 '}';
     }
 }
@@ -1,7 +1,9 @@
 package com.example.elasticsearch.dto;
 
 import com.example.elasticsearch.entity.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.util.List;
+import java.util.Map;
 
 /**
  * RAG 검색 응답 DTO
@@ -14,6 +16,12 @@ public class RagResponse {
     private List<Product> products; // 검색된 상품 리스트
     private Integer count;          // 검색 결과 수
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> timings; // 단계별 처리 시간 (X-Debug-Timing 요청에만 포함)
+    
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;           // 검색 실패 사유 (배치 검색에서 해당 검색어만 실패한 경우)
+    
     public RagResponse() {}
     
     public RagResponse(String query, String context, List<Product> products) {
@@ -57,6 +65,22 @@ public class RagResponse {
         this.count = count;
     }
     
+    public Map<String, Object> getTimings() {
+        return timings;
+    }
+    
+    public void setTimings(Map<String, Object> timings) {
+        this.timings = timings;
+    }
+    
+    public String getError() {
+        return error;
+    }
+    
+    public void setError(String error) {
+        this.error = error;
+    }
+    
     @Override
     public String toString() {
         return "RagResponse{" +
@@ -0,0 +1,54 @@
+package com.example.elasticsearch.dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.util.Locale;
+
+/**
+ * 검색 모드
+ */
+public enum SearchMode {
+    /**
+     * kNN 벡터 검색 (기본값)
+     */
+    VECTOR,
+
+    /**
+     * 키워드(BM25) 검색
+     */
+    TEXT,
+
+    /**
+     * BM25 + kNN 을 한 요청에서 실행하고 가중 합산
+     */
+    HYBRID_LINEAR,
+
+    /**
+     * BM25 + kNN 을 한 번의 msearch 로 실행하고 Reciprocal Rank Fusion
+     */
+    HYBRID_RRF;
+
+    /**
+     * 대소문자 무관 변환 (null/빈 값 → VECTOR, 별칭: hybrid → HYBRID_LINEAR, rrf → HYBRID_RRF)
+     * @throws IllegalArgumentException 알 수 없는 값 (다른 모드로 조용히 검색하지 않도록 400으로 거절)
+     */
+    @JsonCreator
+    public static SearchMode from(String value) {
+        if (value == null || value.isBlank()) {
+            return VECTOR;
+        }
+        String normalized = value.trim().toUpperCase(Locale.ROOT).replace('-', '_');
+        if ("HYBRID".equals(normalized)) {
+            return HYBRID_LINEAR;
+        }
+        if ("RRF".equals(normalized)) {
+            return HYBRID_RRF;
+        }
+        for (SearchMode mode : values()) {
+            if (mode.name().equals(normalized)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("알 수 없는 검색 모드: " + value);
+    }
+}
@@ -11,7 +11,9 @@ import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * 상담 가이드 엔티티
@@ -59,5 +61,25 @@ public class Consultation {
     
     // 유사도 점수 (검색 결과용, 저장되지 않음)
     private Double score;
+    
+    /**
+     * 복사본 (검색 결과 캐시용, 속성 목록 / 점수 포함)
+     */
+    public Consultation copy() {
+        return new Consultation(
+            csasiId,
+            csasiName,
+            browseCount,
+            properties != null
+                ? properties.stream().map(ConsultationProperty::copy).collect(Collectors.toCollection(ArrayList::new))
+                : null,
+            fullContent,
+            contentVector != null ? contentVector.clone() : null,
+            useYn,
+            regDts,
+            indexedAt,
+            score
+        );
+    }
 }
 
@@ -5,8 +5,6 @@ import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
 
-import java.util.List;
-
 @Document(indexName = "products_korean")
 public class Product {
 
@@ -19,7 +17,7 @@ public class Product {
     private Integer stock;
     
     @Field(name = "name_vector", type = FieldType.Dense_Vector)
-    private List<Float> nameVector;
+    private float[] nameVector;
     
     // 검색 결과 유사도 점수 (Elasticsearch에 저장되지 않음)
     private transient Double score;
@@ -34,6 +32,17 @@ public class Product {
         this.stock = stock;
     }
 
+    /**
+     * 복사본 (검색 결과 캐시용, 점수 포함)
+     */
+    public Product copy() {
+        Product copy = new Product(name, description, price, category, stock);
+        copy.id = id;
+        copy.nameVector = nameVector != null ? nameVector.clone() : null;
+        copy.score = score;
+        return copy;
+    }
+
     // Getters and Setters
     public String getId() {
         return id;
@@ -83,11 +92,11 @@ public class Product {
         this.stock = stock;
     }
 
-    public List<Float> getNameVector() {
+    public float[] getNameVector() {
         return nameVector;
     }
 
-    public void setNameVector(List<Float> nameVector) {
+    public void setNameVector(float[] nameVector) {
         this.nameVector = nameVector;
     }
 
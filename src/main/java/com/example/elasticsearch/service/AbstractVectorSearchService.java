@@ -0,0 +1,410 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.json.JsonpSerializable;
+import com.example.elasticsearch.dto.SearchMode;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * 벡터 / 텍스트 / 하이브리드 검색 공통 구현 (상품, 상담 가이드)
+ * 인덱스별로 다른 부분(인덱스명, 벡터 / 텍스트 필드, _source, 필터, 점수 설정)은 IndexSpec과 하위 클래스가 제공
+ * - VECTOR: kNN (필터는 HNSW 탐색 중 적용), 의미상 거의 같은 검색어의 결과 재사용
+ * - TEXT: multi_match (BM25)
+ * - HYBRID_LINEAR: query + knn 을 한 번의 search 로 실행 (가중 합산)
+ * - HYBRID_RRF: 두 검색을 한 번의 msearch 로 실행 후 Reciprocal Rank Fusion
+ * 동시에 들어온 같은 검색은 임베딩 + ES 검색 1회를 공유
+ *
+ * @param <T> 검색 결과 엔티티
+ * @param <F> 인덱스별 필터 (정규화한 값이 검색 키 / 결과 캐시 범위로 쓰이므로 equals 비교 가능해야 함)
+ */
+public abstract class AbstractVectorSearchService<T, F> {
+
+    // 요청당 최대 topK (ES kNN 제약 k ≤ num_candidates ≤ 10000, 넘으면 API에서 400)
+    public static final int MAX_TOP_K = KnnCandidatePolicy.ES_MAX_CANDIDATES;
+
+    protected final Logger log = LoggerFactory.getLogger(getClass());
+
+    protected final ElasticsearchClient elasticsearchClient;
+    protected final KnnSearchClient knnSearchClient;
+    protected final EmbeddingService embeddingService;
+    protected final StageMetrics stageMetrics;
+    protected final IndexSpec<T> spec;
+
+    // kNN num_candidates 정책 (인덱스별, embedding/knn_recall_benchmark.py 측정값으로 갱신, 기본값은 잠정값)
+    protected final KnnCandidatePolicy candidatePolicy;
+
+    // 하이브리드 검색 설정
+    @Value("${search.hybrid.text-weight:0.3}")
+    private float textWeight;
+
+    @Value("${search.hybrid.vector-weight:0.7}")
+    private float vectorWeight;
+
+    @Value("${search.hybrid.rrf-rank-constant:60}")
+    private int rrfRankConstant;
+
+    @Value("${search.hybrid.rrf-window-size:50}")
+    private int rrfWindowSize;
+
+    // 의미상 거의 같은 검색어의 kNN 결과 재사용 (벡터 검색 전용)
+    @Value("${search.semantic-cache.enabled:true}")
+    private boolean semanticCacheEnabled;
+
+    @Value("${search.semantic-cache.max-entries:512}")
+    private int semanticCacheMaxEntries;
+
+    @Value("${search.semantic-cache.similarity-threshold:0.97}")
+    private double semanticCacheThreshold;
+
+    @Value("${search.semantic-cache.ttl-seconds:300}")
+    private long semanticCacheTtlSeconds;
+
+    protected SemanticResultCache<T> resultCache;
+
+    // 동시에 들어온 같은 검색은 임베딩 + ES 검색 1회를 공유
+    private final SingleFlight<SearchKey, List<T>> searchFlight;
+
+    protected AbstractVectorSearchService(IndexSpec<T> spec, ElasticsearchClient elasticsearchClient,
+                                          KnnSearchClient knnSearchClient, EmbeddingService embeddingService,
+                                          StageMetrics stageMetrics, KnnCandidatePolicy candidatePolicy,
+                                          int maxInFlight) {
+        this.spec = spec;
+        this.elasticsearchClient = elasticsearchClient;
+        this.knnSearchClient = knnSearchClient;
+        this.embeddingService = embeddingService;
+        this.stageMetrics = stageMetrics;
+        this.candidatePolicy = candidatePolicy;
+        this.searchFlight = new SingleFlight<>(maxInFlight);
+    }
+
+    @PostConstruct
+    void init() {
+        if (rrfWindowSize < 1 || rrfWindowSize > MAX_TOP_K) {
+            throw new IllegalArgumentException(
+                    "search.hybrid.rrf-window-size는 1 ~ " + MAX_TOP_K + " 사이여야 합니다: " + rrfWindowSize);
+        }
+        this.resultCache = new SemanticResultCache<>(semanticCacheEnabled, semanticCacheMaxEntries,
+                semanticCacheThreshold, semanticCacheTtlSeconds, spec.copier());
+    }
+
+    /**
+     * 요청 topK 검증 (컨트롤러 입력 검증용, RRF 윈도우 max(topK, rrf-window-size)도 함께 ES 제약 이내)
+     * @return 1 ~ MAX_TOP_K 이면 true
+     */
+    public static boolean isValidTopK(Integer topK) {
+        return topK != null && topK >= 1 && topK <= MAX_TOP_K;
+    }
+
+    /**
+     * 필터 정규화 (null / 빈 값 처리, 검색 키와 결과 캐시 범위로 사용)
+     */
+    protected abstract F normalizeFilter(F filter);
+
+    /**
+     * 필터 → filter 절 쿼리 목록 (kNN filter / bool filter 공용, 점수에 영향 없음)
+     */
+    protected abstract List<Query> filterQueries(F filter);
+
+    /**
+     * 색인 변경 시 검색 결과 캐시 무효화
+     */
+    public void invalidateCache() {
+        resultCache.invalidate();
+    }
+
+    /**
+     * 검색 결과 캐시 통계
+     */
+    public Map<String, Object> getCacheStats() {
+        return resultCache.getStats();
+    }
+
+    /**
+     * 검색 모드에 따른 검색 (필터 적용)
+     * 필터는 kNN filter / bool filter 로 전달되어 조건을 만족하는 문서 안에서 top-K를 채움
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @param mode 검색 모드 (null이면 VECTOR)
+     * @param filter 인덱스별 필터 (null이면 필터 없음 / 기본값)
+     * @return 검색 결과 (호출자별 복사본, 문서 객체까지 복사)
+     */
+    public List<T> search(String queryText, int topK, SearchMode mode, F filter) {
+        F normalized = normalizeFilter(filter);
+        return copyOf(searchFlight.execute(SearchKey.of(spec.indexName(), queryText, topK, mode, normalized),
+                () -> dispatch(queryText, topK, mode, normalized)));
+    }
+
+    /**
+     * 검색 모드에 따른 검색 (비동기)
+     * 벡터 검색은 임베딩을 비동기(마이크로 배치)로 요청하고 kNN은 비동기 HTTP로 요청, 응답 처리(역직렬화 / 결과 캐시 저장)만 executor에서 실행
+     * (임베딩 / ES 응답 대기 중 스레드 점유 없음, 임베딩 / HTTP I/O 스레드에서는 후속 단계를 실행하지 않음)
+     * 그 외 모드는 executor에서 동기 검색 실행
+     * @param filter 인덱스별 필터 (null이면 필터 없음 / 기본값)
+     * @param executor 응답 처리 등 블로킹·CPU 단계를 실행할 스레드 풀
+     * @return 검색 결과 (호출자별 복사본, 문서 객체까지 복사)
+     */
+    public CompletableFuture<List<T>> searchAsync(String queryText, int topK, SearchMode mode,
+                                                  F filter, Executor executor) {
+        RequestTiming timing = RequestTiming.current();
+        F normalized = normalizeFilter(filter);
+        return searchFlight.executeAsync(SearchKey.of(spec.indexName(), queryText, topK, mode, normalized),
+                () -> mode == null || mode == SearchMode.VECTOR
+                        ? embeddingService.getVectorAsync(queryText)
+                                .thenComposeAsync(queryVector -> vectorSearchAsync(queryVector, topK, normalized,
+                                        timing, executor), executor)
+                        : CompletableFuture.supplyAsync(() -> dispatch(queryText, topK, mode, normalized), executor))
+                .thenApply(this::copyOf);
+    }
+
+    /**
+     * 합쳐진 호출자끼리 목록과 문서 객체를 공유하지 않도록 문서 단위 복사 (spec.copier)
+     */
+    private List<T> copyOf(List<T> documents) {
+        List<T> copies = new ArrayList<>(documents.size());
+        for (T document : documents) {
+            copies.add(spec.copier().apply(document));
+        }
+        return copies;
+    }
+
+    private CompletableFuture<List<T>> vectorSearchAsync(float[] queryVector, int topK, F filter, RequestTiming timing,
+                                                         Executor executor) {
+        SemanticResultCache.Lookup<T> cached = resultCache.lookup(queryVector, topK, filter);
+        stageMetrics.recordCache("semantic", spec.indexName(), cached.results() != null);
+        RequestTiming.put(timing, "semanticCacheHit", cached.results() != null);
+        if (cached.results() != null) {
+            return CompletableFuture.completedFuture(cached.results());
+        }
+
+        return stageMetrics.timeAsync(StageMetrics.KNN, spec.indexName(), "elasticsearch",
+                        () -> knnSearchClient.searchAsync(spec.indexName(),
+                                knnRequest(queryVector, topK, filterQueries(filter)), spec.documentClass(), executor))
+                .thenApplyAsync(response -> {
+                    RequestTiming.addMillis(timing, "esTookMs", response.took());
+                    List<T> documents = toDocuments(response.hits().hits());
+                    resultCache.put(queryVector, topK, filter, documents, cached.generation());
+                    log.debug("{} 벡터 검색 완료 (비동기): 총 {}건", spec.displayName(), documents.size());
+                    return documents;
+                }, executor);
+    }
+
+    private List<T> dispatch(String queryText, int topK, SearchMode mode, F filter) {
+        if (mode == null) {
+            return vectorSearch(queryText, topK, filter);
+        }
+
+        return switch (mode) {
+            case TEXT -> textSearch(queryText, topK, filter);
+            case HYBRID_LINEAR, HYBRID_RRF -> hybridSearch(queryText, topK, mode, filter);
+            default -> vectorSearch(queryText, topK, filter);
+        };
+    }
+
+    /**
+     * 벡터 기반 검색 (필터 적용)
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @param filter 인덱스별 필터 (null이면 필터 없음 / 기본값)
+     * @return 유사한 문서 리스트 (유사도 점수 포함)
+     */
+    public List<T> vectorSearch(String queryText, int topK, F filter) {
+        F normalized = normalizeFilter(filter);
+        try {
+            // 1. 검색어를 벡터로 변환
+            float[] queryVector = embeddingService.getVector(queryText);
+
+            // 2. 최근 유사 검색어 결과가 있으면 재사용
+            SemanticResultCache.Lookup<T> cached = resultCache.lookup(queryVector, topK, normalized);
+            stageMetrics.recordCache("semantic", spec.indexName(), cached.results() != null);
+            RequestTiming.put("semanticCacheHit", cached.results() != null);
+            if (cached.results() != null) {
+                return cached.results();
+            }
+
+            // 3. Elasticsearch kNN 검색 (필터는 HNSW 탐색 중에 적용)
+            KnnSearchBody searchBody = knnRequest(queryVector, topK, filterQueries(normalized));
+            SearchResponse<T> response = stageMetrics.timeChecked(StageMetrics.KNN, spec.indexName(), "elasticsearch",
+                    () -> knnSearchClient.search(spec.indexName(), searchBody, spec.documentClass()));
+            RequestTiming.addMillis("esTookMs", response.took());
+
+            // 4. 결과 반환 (유사도 점수 포함)
+            List<T> documents = toDocuments(response.hits().hits());
+            resultCache.put(queryVector, topK, normalized, documents, cached.generation());
+            log.debug("{} 벡터 검색 완료: 총 {}건", spec.displayName(), documents.size());
+            return documents;
+
+        } catch (Exception e) {
+            log.error("{} 벡터 검색 실패: {}", spec.displayName(), e.getMessage(), e);
+            throw new RuntimeException(spec.displayName() + " 벡터 검색 중 오류 발생: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 키워드(BM25) 검색 (필터 적용)
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @param filter 인덱스별 필터 (null이면 필터 없음 / 기본값)
+     * @return 검색 결과
+     */
+    public List<T> textSearch(String queryText, int topK, F filter) {
+        try {
+            List<Query> filters = filterQueries(normalizeFilter(filter));
+            SearchRequest searchRequest = SearchRequest.of(s -> s
+                    .index(spec.indexName())
+                    .query(filtered(textQuery(queryText, 1.0f), filters))
+                    .size(topK)
+                    .source(spec.sourceFields())
+            );
+
+            SearchResponse<T> response = stageMetrics.timeChecked(StageMetrics.TEXT, spec.indexName(), "elasticsearch",
+                    () -> elasticsearchClient.search(searchRequest, spec.documentClass()));
+            RequestTiming.addMillis("esTookMs", response.took());
+
+            List<T> documents = toDocuments(response.hits().hits());
+            log.debug("{} 텍스트 검색 완료: 총 {}건", spec.displayName(), documents.size());
+            return documents;
+
+        } catch (Exception e) {
+            log.error("{} 텍스트 검색 실패: {}", spec.displayName(), e.getMessage(), e);
+            throw new RuntimeException(spec.displayName() + " 텍스트 검색 중 오류 발생: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 하이브리드 검색 (BM25 + kNN)
+     * - HYBRID_LINEAR: query + knn 을 한 번의 search 로 실행, 점수 = textWeight*BM25 + vectorWeight*유사도
+     * - HYBRID_RRF: 두 검색을 한 번의 msearch 로 실행 후 순위 기반 융합
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @param mode HYBRID_LINEAR 또는 HYBRID_RRF
+     * @param filter 인덱스별 필터 (BM25 / kNN 양쪽에 적용)
+     * @return 검색 결과
+     */
+    public List<T> hybridSearch(String queryText, int topK, SearchMode mode, F filter) {
+        try {
+            float[] queryVector = embeddingService.getVector(queryText);
+            List<Query> filters = filterQueries(normalizeFilter(filter));
+
+            List<T> documents = mode == SearchMode.HYBRID_RRF
+                    ? rrfSearch(queryText, queryVector, topK, filters)
+                    : linearSearch(queryText, queryVector, topK, filters);
+
+            log.debug("{} 하이브리드 검색 완료 ({}): 총 {}건", spec.displayName(), mode, documents.size());
+            return documents;
+
+        } catch (Exception e) {
+            log.error("{} 하이브리드 검색 실패: {}", spec.displayName(), e.getMessage(), e);
+            throw new RuntimeException(spec.displayName() + " 하이브리드 검색 중 오류 발생: " + e.getMessage(), e);
+        }
+    }
+
+    private List<T> linearSearch(String queryText, float[] queryVector, int topK, List<Query> filters) throws Exception {
+        KnnSearchBody searchBody = knnRequest(queryVector, topK, filters)
+                .withQuery(filtered(textQuery(queryText, textWeight), filters), vectorWeight);
+
+        SearchResponse<T> response = stageMetrics.timeChecked(StageMetrics.HYBRID_LINEAR, spec.indexName(), "elasticsearch",
+                () -> knnSearchClient.search(spec.indexName(), searchBody, spec.documentClass()));
+        RequestTiming.addMillis("esTookMs", response.took());
+        return toDocuments(response.hits().hits());
+    }
+
+    private List<T> rrfSearch(String queryText, float[] queryVector, int topK, List<Query> filters) throws Exception {
+        int window = Math.max(topK, rrfWindowSize);
+
+        // msearch 본문 (인덱스는 경로로 지정)
+        SearchRequest textBody = SearchRequest.of(s -> s
+                .query(filtered(textQuery(queryText, 1.0f), filters))
+                .size(window)
+                .source(spec.sourceFields())
+        );
+        List<JsonpSerializable> searchBodies = List.of(textBody, knnRequest(queryVector, window, filters));
+
+        MsearchResponse<T> response = stageMetrics.timeChecked(StageMetrics.HYBRID_RRF, spec.indexName(), "elasticsearch",
+                () -> knnSearchClient.msearch(spec.indexName(), searchBodies, spec.documentClass()));
+        RequestTiming.addMillis("esTookMs", response.took());
+
+        List<List<Hit<T>>> rankings = new ArrayList<>();
+        for (MultiSearchResponseItem<T> item : response.responses()) {
+            if (item.isFailure()) {
+                throw new RuntimeException("msearch 하위 검색 실패: " + item.failure().error().reason());
+            }
+            rankings.add(item.result().hits().hits());
+        }
+
+        return RankFusion.reciprocalRank(rankings, rrfRankConstant, topK, spec.scoreSetter());
+    }
+
+    /**
+     * kNN 요청 본문 (num_candidates는 인덱스별 정책으로 결정)
+     */
+    protected KnnSearchBody knnRequest(float[] queryVector, int k, List<Query> filters) {
+        return KnnSearchBody.knn(spec.vectorField(), queryVector, k, candidatePolicy.numCandidates(k),
+                filters, spec.sourceFields());
+    }
+
+    private Query textQuery(String queryText, float boost) {
+        return Query.of(q -> q
+                .multiMatch(m -> m
+                        .query(queryText)
+                        .fields(spec.textFields())
+                        .boost(boost)
+                )
+        );
+    }
+
+    /**
+     * 필터가 있으면 bool(must: query, filter: filters)로 감쌈
+     */
+    private static Query filtered(Query query, List<Query> filters) {
+        if (filters.isEmpty()) {
+            return query;
+        }
+        return Query.of(q -> q.bool(b -> b.must(query).filter(filters)));
+    }
+
+    /**
+     * hit → 엔티티 (유사도 / BM25 점수 기록)
+     */
+    protected List<T> toDocuments(List<Hit<T>> hits) {
+        return hits.stream()
+                .map(hit -> {
+                    T document = hit.source();
+                    if (document != null && hit.score() != null) {
+                        spec.scoreSetter().accept(document, hit.score());
+                    }
+                    return document;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 인덱스별 검색 대상 정의
+     * @param displayName 로그 / 오류 메시지용 이름
+     * @param textFields multi_match 대상 필드 (boost 표기 포함)
+     * @param scoreSetter 검색 점수를 엔티티에 기록하는 함수
+     * @param copier 엔티티 복사 함수 (검색 결과 캐시가 호출자와 엔티티를 공유하지 않도록)
+     */
+    protected record IndexSpec<T>(String displayName, String indexName, String vectorField, List<String> textFields,
+                                  SourceConfig sourceFields, Class<T> documentClass,
+                                  BiConsumer<T, Double> scoreSetter, UnaryOperator<T> copier) {
+    }
+}
@@ -6,10 +6,16 @@ import com.example.elasticsearch.entity.ChatHistory;
 import com.example.elasticsearch.entity.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * AI Agent 서비스
@@ -22,25 +28,101 @@ public class AgentService {
     private final VectorSearchService vectorSearchService;
     private final LlmService llmService;
     private final ChatHistoryService chatHistoryService;
+    private final Executor streamingExecutor;
+    private final Executor searchExecutor;
+    private final StageMetrics stageMetrics;
     
     @Value("${agent.rag.enabled:true}")
     private boolean ragEnabled;
     
+    @Value("${llm.stream.timeout-ms:180000}")
+    private long streamTimeoutMs;
+    
     public AgentService(VectorSearchService vectorSearchService, 
                        LlmService llmService,
-                       ChatHistoryService chatHistoryService) {
+                       ChatHistoryService chatHistoryService,
+                       @Qualifier("streamingExecutor") Executor streamingExecutor,
+                       @Qualifier("searchExecutor") Executor searchExecutor,
+                       StageMetrics stageMetrics) {
         this.vectorSearchService = vectorSearchService;
         this.llmService = llmService;
         this.chatHistoryService = chatHistoryService;
+        this.streamingExecutor = streamingExecutor;
+        this.searchExecutor = searchExecutor;
+        this.stageMetrics = stageMetrics;
+    }
+    
+    /**
+     * 사용자 질문에 대한 AI 응답 생성 (비동기)
+     * 요청 스레드는 바로 반환되고, 검색은 ES 비동기 요청으로, LLM은 구현체의 비동기 호출로 실행
+     * (Bedrock: ConverseStream, 그 외: searchExecutor에서 동기 호출)
+     * 컨텍스트 구성 / 히스토리 저장 등 후속 단계는 searchExecutor에서 실행 (ES / Bedrock I/O 스레드 점유 없음)
+     */
+    public CompletableFuture<AgentResponse> chatAsync(AgentRequest request) {
+        long startTime = System.currentTimeMillis();
+        RequestTiming timing = RequestTiming.current();
+        
+        logger.info("🤖 Agent 비동기 요청: question='{}', topK={}", 
+            request.getQuestion(), request.getTopK());
+        
+        // 1. RAG 검색
+        CompletableFuture<List<Product>> productsFuture = ragEnabled
+            ? vectorSearchService.searchAsync(request.getQuestion(), request.getTopK(), request.getMode(),
+                    request.toFilter(), searchExecutor)
+            : CompletableFuture.completedFuture(null);
+        
+        return productsFuture.thenComposeAsync(products -> {
+            // 2. 컨텍스트 생성
+            String context = products != null ? buildContext(request.getQuestion(), products) : null;
+            
+            // 3. AI 응답 생성
+            return llmService.generateResponseAsync(
+                request.getQuestion(),
+                context,
+                products,
+                Boolean.TRUE.equals(request.getBypassCache()),
+                searchExecutor
+            ).thenApplyAsync(answer -> {
+                long responseTime = System.currentTimeMillis() - startTime;
+                logger.info("✅ Agent 응답 완료 ({}ms)", responseTime);
+                
+                // 대화 히스토리 저장
+                chatHistoryService.save(new ChatHistory(
+                    request.getQuestion(),
+                    answer,
+                    products != null ? products.size() : 0,
+                    responseTime
+                ));
+                
+                AgentResponse response = new AgentResponse(
+                    request.getQuestion(),
+                    answer,
+                    products,
+                    context,
+                    responseTime
+                );
+                response.setTimings(RequestTiming.snapshot(timing));
+                return response;
+            }, searchExecutor);
+        }, searchExecutor);
     }
     
     /**
-     * 사용자 질문에 대한 AI 응답 생성
+     * 사용자 질문에 대한 AI 응답 스트리밍 (SSE)
+     * 1. retrieval: 검색된 상품과 컨텍스트를 LLM 호출 전에 바로 전송
+     * 2. token: LLM 토큰을 생성되는 대로 전송
+     * 3. done: 전체 응답 시간 전송 후 대화 히스토리 저장
      */
-    public AgentResponse chat(AgentRequest request) {
+    public SseEmitter chatStream(AgentRequest request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        streamingExecutor.execute(() -> doChatStream(request, emitter));
+        return emitter;
+    }
+    
+    private void doChatStream(AgentRequest request, SseEmitter emitter) {
         long startTime = System.currentTimeMillis();
         
-        logger.info("🤖 Agent 요청: question='{}', topK={}", 
+        logger.info("🤖 Agent 스트리밍 요청: question='{}', topK={}", 
             request.getQuestion(), request.getTopK());
         
         try {
@@ -49,55 +131,81 @@ public class AgentService {
             String context = null;
             
             if (ragEnabled) {
-                logger.info("📚 RAG 검색 시작...");
-                products = vectorSearchService.vectorSearch(
+                products = vectorSearchService.search(
                     request.getQuestion(), 
-                    request.getTopK()
+                    request.getTopK(),
+                    request.getMode(),
+                    request.toFilter()
                 );
-                
-                // 2. 컨텍스트 생성
                 context = buildContext(request.getQuestion(), products);
                 logger.info("✅ RAG 검색 완료: {}개 상품 발견", products.size());
             }
             
-            // 3. AI 응답 생성
-            logger.info("🧠 AI 응답 생성 중...");
-            String answer = llmService.generateResponse(
-                request.getQuestion(), 
-                context, 
-                products
-            );
-            
-            long responseTime = System.currentTimeMillis() - startTime;
-            logger.info("✅ Agent 응답 완료 ({}ms)", responseTime);
-            
-            // 대화 히스토리 저장
-            ChatHistory history = new ChatHistory(
-                request.getQuestion(),
-                answer,
-                products != null ? products.size() : 0,
-                responseTime
-            );
-            chatHistoryService.save(history);
-            
-            return new AgentResponse(
+            SseEvents.send(emitter, SseEvents.RETRIEVAL, new AgentResponse(
                 request.getQuestion(),
-                answer,
+                null,
                 products,
                 context,
-                responseTime
-            );
+                System.currentTimeMillis() - startTime
+            ));
+            
+            // 2. AI 응답 토큰 스트리밍
+            StringBuilder answer = new StringBuilder();
+            int productCount = products != null ? products.size() : 0;
+            
+            Disposable subscription = llmService.streamResponse(request.getQuestion(), context, products)
+                .subscribe(
+                    token -> {
+                        answer.append(token);
+                        SseEvents.sendToken(emitter, token);
+                    },
+                    error -> {
+                        logger.error("❌ Agent 스트리밍 실패: {}", error.getMessage(), error);
+                        SseEvents.sendErrorAndComplete(emitter, error);
+                    },
+                    () -> {
+                        long responseTime = System.currentTimeMillis() - startTime;
+                        logger.info("✅ Agent 스트리밍 완료 ({}ms)", responseTime);
+                        
+                        // 대화 히스토리 저장
+                        chatHistoryService.save(new ChatHistory(
+                            request.getQuestion(),
+                            answer.toString(),
+                            productCount,
+                            responseTime
+                        ));
+                        
+                        try {
+                            SseEvents.send(emitter, SseEvents.DONE, Map.of("responseTime", responseTime));
+                            emitter.complete();
+                        } catch (Exception e) {
+                            emitter.completeWithError(e);
+                        }
+                    }
+                );
+            
+            // 클라이언트 연결 종료/타임아웃 시 LLM 스트림도 취소
+            emitter.onTimeout(subscription::dispose);
+            emitter.onError(e -> subscription.dispose());
             
         } catch (Exception e) {
-            logger.error("❌ Agent 처리 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("Agent 처리 중 오류 발생: " + e.getMessage(), e);
+            logger.error("❌ Agent 스트리밍 처리 실패: {}", e.getMessage(), e);
+            SseEvents.sendErrorAndComplete(emitter, e);
         }
     }
     
     /**
-     * RAG 컨텍스트 생성
+     * 컨텍스트 생성 (처리 시간 측정)
      */
     private String buildContext(String query, List<Product> products) {
+        return stageMetrics.time(StageMetrics.CONTEXT, StageMetrics.NONE, StageMetrics.NONE,
+            () -> formatContext(query, products));
+    }
+    
+    /**
+     * RAG 컨텍스트 생성
+     */
+    private String formatContext(String query, List<Product> products) {
         if (products == null || products.isEmpty()) {
             return "검색 결과가 없습니다.";
         }
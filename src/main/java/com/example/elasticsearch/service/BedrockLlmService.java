@@ -8,10 +8,18 @@ import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
 
 /**
  * AWS Bedrock Claude 연동 LLM 서비스
@@ -22,44 +30,66 @@ import java.util.List;
 public class BedrockLlmService implements LlmService {
     private static final Logger logger = LoggerFactory.getLogger(BedrockLlmService.class);
     
+    // 시스템 메시지
+    private static final String SYSTEM_PROMPT = """
+        당신은 친절하고 전문적인 상담 AI Agent입니다.
+        사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
+        상품 추천 및 검색을 도와주는 역할을 합니다.
+        
+        응답 가이드:
+        1. 검색된 상품 정보를 바탕으로 친절하게 답변해주세요.
+        2. 상품의 주요 특징과 장점을 강조해주세요.
+        3. 사용자에게 도움이 되는 추가 정보를 제공해주세요.
+        4. 자연스럽고 대화하는 듯한 톤으로 작성해주세요.
+        5. 이모지를 적절히 활용하여 친근하게 작성해주세요.
+        """;
+    
     private final ChatModel chatModel;
+    private final LlmResponseCache responseCache;
+    private final StageMetrics stageMetrics;
+    
+    // 비동기 응답 전체 대기 제한 (초과 시 ConverseStream 구독 취소 후 오류 응답)
+    @Value("${llm.timeout-ms:120000}")
+    private long timeoutMs;
     
     @Autowired
-    public BedrockLlmService(ChatModel chatModel) {
+    public BedrockLlmService(ChatModel chatModel, LlmResponseCache responseCache, StageMetrics stageMetrics) {
         this.chatModel = chatModel;
+        this.responseCache = responseCache;
+        this.stageMetrics = stageMetrics;
         logger.info("🚀 AWS Bedrock LLM Service initialized (Converse API)");
     }
     
     @Override
     public String generateResponse(String question, String context, List<Product> products) {
-        logger.info("🤖 AWS Bedrock Claude API 호출 중 (Converse API)...");
-        
+        return generateResponse(question, context, products, false);
+    }
+    
+    @Override
+    public String generateResponse(String question, String context, List<Product> products, boolean bypassCache) {
         try {
-            // 시스템 메시지
-            String systemPrompt = """
-                당신은 친절하고 전문적인 상담 AI Agent입니다.
-                사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
-                상품 추천 및 검색을 도와주는 역할을 합니다.
-                
-                응답 가이드:
-                1. 검색된 상품 정보를 바탕으로 친절하게 답변해주세요.
-                2. 상품의 주요 특징과 장점을 강조해주세요.
-                3. 사용자에게 도움이 되는 추가 정보를 제공해주세요.
-                4. 자연스럽고 대화하는 듯한 톤으로 작성해주세요.
-                5. 이모지를 적절히 활용하여 친근하게 작성해주세요.
-                """;
+            Prompt prompt = buildPrompt(question, context, products);
             
-            // 사용자 메시지 구성
-            String userPrompt = buildUserPrompt(question, context, products);
+            // 같은 프롬프트 + 모델 옵션이면 캐시된 응답 재사용
+            String cacheKey = responseCache.fingerprint(prompt);
+            RequestTiming.put("promptChars", LlmResponseCache.promptChars(prompt));
+            if (!bypassCache) {
+                String cached = responseCache.get(cacheKey);
+                RequestTiming.put("llmCacheHit", cached != null);
+                if (cached != null) {
+                    logger.info("⚡ LLM 응답 캐시 적중");
+                    return cached;
+                }
+            }
             
-            // Spring AI Converse API를 통한 Bedrock 호출
-            SystemMessage systemMessage = new SystemMessage(systemPrompt);
-            UserMessage userMessage = new UserMessage(userPrompt);
-            Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
+            logger.info("🤖 AWS Bedrock Claude API 호출 중 (Converse API)...");
             
-            String response = chatModel.call(prompt).getResult().getOutput().getContent();
+            // Spring AI Converse API를 통한 Bedrock 호출
+            String response = stageMetrics.time(StageMetrics.LLM, StageMetrics.NONE, "bedrock",
+                () -> chatModel.call(prompt).getResult().getOutput().getContent());
             
             logger.info("✅ AWS Bedrock Claude 응답 성공 (Converse API)");
+            responseCache.put(cacheKey, response, Set.of(), Set.of());
             return response;
             
         } catch (Exception e) {
@@ -69,6 +99,74 @@ public class BedrockLlmService implements LlmService {
         }
     }
     
+    /**
+     * ConverseStream 토큰을 모아 전체 응답으로 반환 (Bedrock 비동기 클라이언트 사용, 응답 대기 중 스레드 점유 없음)
+     * llm.timeout-ms 안에 끝나지 않으면 스트림을 취소, 응답 캐시 저장은 executor에서 실행 (Bedrock I/O 스레드 점유 없음)
+     */
+    @Override
+    public CompletableFuture<String> generateResponseAsync(String question, String context, List<Product> products,
+                                                           boolean bypassCache, Executor executor) {
+        RequestTiming timing = RequestTiming.current();
+        Prompt prompt = buildPrompt(question, context, products);
+        
+        String cacheKey = responseCache.fingerprint(prompt);
+        RequestTiming.put(timing, "promptChars", LlmResponseCache.promptChars(prompt));
+        if (!bypassCache) {
+            String cached = responseCache.get(cacheKey);
+            RequestTiming.put(timing, "llmCacheHit", cached != null);
+            if (cached != null) {
+                logger.info("⚡ LLM 응답 캐시 적중");
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        
+        logger.info("🤖 AWS Bedrock Claude 비동기 호출 중 (ConverseStream API)...");
+        return stageMetrics.timeAsync(StageMetrics.LLM, StageMetrics.NONE, "bedrock",
+                () -> chatModel.stream(prompt)
+                    .filter(response -> response.getResult() != null
+                        && response.getResult().getOutput() != null
+                        && response.getResult().getOutput().getContent() != null)
+                    .map(response -> response.getResult().getOutput().getContent())
+                    .collect(Collectors.joining())
+                    .timeout(Duration.ofMillis(timeoutMs))
+                    .toFuture())
+            .thenApplyAsync(response -> {
+                logger.info("✅ AWS Bedrock Claude 응답 성공 (ConverseStream API)");
+                responseCache.put(cacheKey, response, Set.of(), Set.of());
+                return response;
+            }, executor)
+            .exceptionally(e -> {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                logger.error("❌ AWS Bedrock API 호출 실패: {}", cause.getMessage(), cause);
+                return "죄송합니다. AI 응답 생성 중 오류가 발생했습니다: " + cause.getMessage();
+            });
+    }
+    
+    @Override
+    public Flux<String> streamResponse(String question, String context, List<Product> products) {
+        logger.info("🤖 AWS Bedrock Claude 스트리밍 호출 중 (ConverseStream API)...");
+        
+        return chatModel.stream(buildPrompt(question, context, products))
+            .filter(response -> response.getResult() != null
+                && response.getResult().getOutput() != null
+                && response.getResult().getOutput().getContent() != null)
+            .map(response -> response.getResult().getOutput().getContent())
+            .doOnComplete(() -> logger.info("✅ AWS Bedrock Claude 스트리밍 완료"))
+            .doOnError(e -> logger.error("❌ AWS Bedrock 스트리밍 실패: {}", e.getMessage(), e));
+    }
+    
+    /**
+     * 시스템 + 사용자 메시지로 프롬프트 생성
+     */
+    private Prompt buildPrompt(String question, String context, List<Product> products) {
+        // 사용자 메시지 구성
+        String userPrompt = buildUserPrompt(question, context, products);
+        
+        SystemMessage systemMessage = new SystemMessage(SYSTEM_PROMPT);
+        UserMessage userMessage = new UserMessage(userPrompt);
+        return new Prompt(List.of(systemMessage, userMessage));
+    }
+    
     /**
      * 사용자 프롬프트 생성
      */
@@ -0,0 +1,112 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.entity.ChatHistory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 사용자별 고정 크기 대화 히스토리 버퍼 (bounded deque)
+ * - 추가: 뒤에 추가하고, capacity를 넘으면 가장 오래된 항목을 앞에서 O(1) 제거
+ * - 조회: 최근 limit개를 복사한 스냅샷 반환
+ * - 메모리: 항목별 추정 바이트를 함께 보관해 버퍼 전체 크기를 증분 집계
+ * 같은 사용자의 저장은 ChatHistoryService에서 이미 직렬화되므로 버퍼 자체는 모니터 하나로 충분
+ * (조회는 저장과 동시에 일어날 수 있어 읽기도 같은 모니터 사용, 사용자 단위라 경합이 거의 없음)
+ * lock-free / 스트라이프 방식은 쓰지 않음: 사용자 간 저장은 historyStore 버킷 단위로 이미 분산되고,
+ * 같은 사용자에 몰린 경우의 비용은 BoundedHistoryBufferBenchmark(최대 128 스레드)로 측정
+ */
+final class BoundedHistoryBuffer {
+
+    private final int capacity;
+    private final ArrayDeque<Item> items;
+
+    // 현재 보관 중인 항목들의 추정 바이트 합
+    private long bytes;
+
+    // 마지막 저장/조회 시각 (유휴 사용자 제거 기준)
+    private volatile long lastAccessMillis = System.currentTimeMillis();
+
+    // 저장소(ES)의 최근 대화까지 채워진 버퍼인지 (true면 조회 시 ES 보충 불필요)
+    private volatile boolean hydrated;
+
+    BoundedHistoryBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.items = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * 히스토리 추가
+     * @param history 저장할 히스토리
+     * @param estimatedBytes 항목 추정 크기
+     * @return 버퍼 크기 변화량 (추가분 - 밀려난 항목 크기)
+     */
+    synchronized long append(ChatHistory history, long estimatedBytes) {
+        touch();
+        long delta = estimatedBytes;
+        if (items.size() == capacity) {
+            delta -= items.removeFirst().bytes();
+        }
+        items.addLast(new Item(history, estimatedBytes));
+        bytes += delta;
+        return delta;
+    }
+
+    /**
+     * 최근 limit개 스냅샷 (오래된 순)
+     */
+    synchronized List<ChatHistory> snapshot(int limit) {
+        touch();
+        int count = Math.min(Math.max(limit, 0), items.size());
+        List<ChatHistory> result = new ArrayList<>(count);
+        Iterator<Item> iterator = items.iterator();
+        for (int skip = items.size() - count; skip > 0; skip--) {
+            iterator.next();
+        }
+        while (iterator.hasNext()) {
+            result.add(iterator.next().history());
+        }
+        return result;
+    }
+
+    List<ChatHistory> snapshot() {
+        return snapshot(capacity);
+    }
+
+    /**
+     * 현재 보관 중인 건수 (최대 capacity)
+     */
+    synchronized int size() {
+        return items.size();
+    }
+
+    /**
+     * 현재 보관 중인 항목들의 추정 바이트 합
+     */
+    synchronized long bytes() {
+        return bytes;
+    }
+
+    boolean isHydrated() {
+        return hydrated;
+    }
+
+    void markHydrated() {
+        hydrated = true;
+    }
+
+    long lastAccessMillis() {
+        return lastAccessMillis;
+    }
+
+    private void touch() {
+        lastAccessMillis = System.currentTimeMillis();
+    }
+
+    private record Item(ChatHistory history, long bytes) {
+    }
+}
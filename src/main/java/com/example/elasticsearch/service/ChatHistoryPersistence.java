@@ -0,0 +1,417 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.example.elasticsearch.entity.ChatHistory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 대화 히스토리 Elasticsearch 영속화 (write-behind)
+ * - 저장: 크기 제한 큐에 넣고 즉시 반환, flush 스레드가 batch-size건 또는 flush-interval-ms마다 Bulk 색인
+ * - 인덱스: 월 단위 분할 (chat_history-yyyy.MM), 조회/삭제는 chat_history-* 대상
+ * - 큐가 가득 차면 offer-timeout-ms만큼만 기다린 뒤 버림 (채팅 응답이 ES 지연에 묶이지 않도록)
+ * - 삭제: 큐에 남은 해당 사용자 항목을 버리고, 진행 중인 Bulk가 끝난 뒤 delete_by_query 실행
+ *   (flush 스레드가 이미 꺼낸 항목은 삭제 세대 번호로 걸러서 삭제 후 다시 색인되지 않도록 함)
+ *   삭제 표시는 그보다 이전 세대 항목이 더 이상 남아 있을 수 없을 때(큐는 FIFO, 세대 번호 이상인 항목만 담긴 배치를 기록한 뒤)까지 유지
+ */
+@Component
+public class ChatHistoryPersistence {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatHistoryPersistence.class);
+
+    private static final String INDEX_PREFIX = "chat_history-";
+    private static final String INDEX_PATTERN = INDEX_PREFIX + "*";
+    private static final String TEMPLATE_NAME = "chat_history";
+    private static final DateTimeFormatter INDEX_SUFFIX = DateTimeFormatter.ofPattern("yyyy.MM");
+
+    private final ElasticsearchClient elasticsearchClient;
+
+    @Value("${chat.history.persist.enabled:true}")
+    private boolean enabled;
+
+    @Value("${chat.history.persist.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${chat.history.persist.offer-timeout-ms:50}")
+    private long offerTimeoutMs;
+
+    @Value("${chat.history.persist.batch-size:500}")
+    private int batchSize;
+
+    @Value("${chat.history.persist.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private BlockingQueue<Pending> writeQueue;
+    private Thread flushThread;
+    private volatile boolean running;
+
+    // Bulk 색인과 삭제 직렬화 (삭제는 진행 중인 Bulk가 끝난 뒤 실행)
+    private final Object writeLock = new Object();
+
+    // 삭제 세대 번호: 항목은 큐에 넣을 때의 세대를 기록, 그 뒤에 삭제된 사용자의 항목은 색인하지 않음
+    private final AtomicLong clearGeneration = new AtomicLong();
+    private final Map<String, Long> clearedUsers = new ConcurrentHashMap<>();
+
+    // 세대 번호 읽기 + 큐 추가(읽기 락)와 삭제 표시 + 큐 정리(쓰기 락)를 직렬화
+    // → 삭제 이전 세대 항목이 큐 정리 뒤에 들어오지 않으므로 큐에서 이전 세대 항목은 항상 이후 세대 항목보다 앞에 있음
+    private final ReadWriteLock enqueueLock = new ReentrantReadWriteLock();
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    public ChatHistoryPersistence(ElasticsearchClient elasticsearchClient) {
+        this.elasticsearchClient = elasticsearchClient;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("대화 히스토리 영속화 비활성화 (인메모리만 사용)");
+            return;
+        }
+
+        putIndexTemplate();
+
+        this.writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        this.running = true;
+        this.flushThread = new Thread(this::flushLoop, "chat-history-flusher");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+        log.info("대화 히스토리 write-behind 활성화: batchSize={}, flushIntervalMs={}, queueCapacity={}",
+                batchSize, flushIntervalMs, queueCapacity);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (!running) {
+            return;
+        }
+
+        // flush 스레드가 현재 배치를 마치도록 기다린 뒤 남은 항목을 직접 기록
+        running = false;
+        try {
+            flushThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        flushPending();
+    }
+
+    /**
+     * 큐에 남은 항목을 모두 꺼내 기록 (종료 시)
+     */
+    void flushPending() {
+        List<Pending> remaining = new ArrayList<>();
+        writeQueue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            writeBatch(remaining);
+        }
+    }
+
+    /**
+     * 비동기 저장 요청
+     * @return 큐에 들어갔으면 true (비활성화 또는 큐 포화 시 false)
+     */
+    public boolean enqueue(ChatHistory history) {
+        if (!running) {
+            return false;
+        }
+
+        enqueueLock.readLock().lock();
+        try {
+            if (writeQueue.offer(new Pending(history, clearGeneration.get()), offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            enqueueLock.readLock().unlock();
+        }
+
+        dropped.increment();
+        log.warn("⚠️ 대화 히스토리 저장 큐 포화, 영속화 생략: id={}", history.getId());
+        return false;
+    }
+
+    /**
+     * 사용자의 최근 히스토리 조회 (오래된 순)
+     */
+    public List<ChatHistory> findRecent(String userId, int limit) {
+        if (!enabled || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        try {
+            SearchResponse<ChatHistory> response = elasticsearchClient.search(s -> s
+                    .index(INDEX_PATTERN)
+                    .query(q -> q.term(t -> t.field("userId").value(userId)))
+                    .sort(so -> so.field(f -> f.field("createdAt").order(SortOrder.Desc)))
+                    .size(limit),
+                    ChatHistory.class
+            );
+
+            // 최신순으로 가져와 오래된 순으로 뒤집음 (인메모리 조회 결과와 같은 순서)
+            List<ChatHistory> histories = response.hits().hits().stream()
+                    .map(Hit::source)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toCollection(ArrayList::new));
+            Collections.reverse(histories);
+            return histories;
+
+        } catch (Exception e) {
+            throw new RuntimeException("대화 히스토리 조회 실패: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 사용자의 저장된 히스토리 전체 삭제
+     * 아직 색인되지 않은 항목(큐 / flush 스레드가 꺼낸 배치)도 색인하지 않음
+     * 삭제 결과가 바로 조회에 반영되도록 refresh 후 반환
+     */
+    public void deleteByUser(String userId) {
+        if (!enabled) {
+            return;
+        }
+
+        synchronized (writeLock) {
+            // 진행 중인 저장(세대 번호를 읽고 큐에 넣는 중)이 끝난 뒤 표시 + 큐 정리
+            enqueueLock.writeLock().lock();
+            try {
+                clearedUsers.put(userId, clearGeneration.incrementAndGet());
+                if (writeQueue != null) {
+                    LongAdder removed = new LongAdder();
+                    writeQueue.removeIf(pending -> {
+                        boolean match = userId.equals(pending.history().getUserId());
+                        if (match) {
+                            removed.increment();
+                        }
+                        return match;
+                    });
+                    discarded.add(removed.sum());
+                }
+            } finally {
+                enqueueLock.writeLock().unlock();
+            }
+
+            try {
+                elasticsearchClient.deleteByQuery(d -> d
+                        .index(INDEX_PATTERN)
+                        .query(q -> q.term(t -> t.field("userId").value(userId)))
+                        .refresh(true)
+                );
+            } catch (Exception e) {
+                throw new RuntimeException("대화 히스토리 삭제 실패: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 저장된 히스토리가 있는 사용자 수 (userId cardinality 집계, 4만 명 이하는 사실상 정확)
+     * @return 사용자 수 (비활성화 시 null)
+     */
+    public Long countUsers() {
+        if (!enabled) {
+            return null;
+        }
+
+        try {
+            SearchResponse<Void> response = elasticsearchClient.search(s -> s
+                    .index(INDEX_PATTERN)
+                    .size(0)
+                    .aggregations("users", a -> a.cardinality(c -> c.field("userId").precisionThreshold(40000))),
+                    Void.class
+            );
+            return response.aggregations().get("users").cardinality().value();
+        } catch (Exception e) {
+            throw new RuntimeException("대화 히스토리 사용자 수 조회 실패: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 영속화 통계
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("pending", writeQueue != null ? writeQueue.size() : 0);
+        stats.put("written", written.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        stats.put("discarded", discarded.sum());
+        return stats;
+    }
+
+    /**
+     * flush 루프
+     * 첫 항목이 들어온 뒤 flush-interval-ms 안에 batch-size건이 모이지 않아도 기록 (장애 시 유실 범위 = 한 주기)
+     */
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Pending first = writeQueue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Pending next = writeQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("대화 히스토리 flush 오류: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * 삭제된 사용자 항목을 제외하고 Bulk 색인
+     * 배치의 가장 작은 세대 번호 이하인 삭제 표시는 제거: 큐는 FIFO이고 삭제 이전 세대 항목은 삭제 후 큐에 들어올 수 없으므로
+     * 이 배치 뒤에는 그 표시로 거를 항목이 없음 (이전 세대 항목이 섞인 배치가 지나가는 동안은 표시 유지)
+     */
+    void writeBatch(List<Pending> pending) {
+        synchronized (writeLock) {
+            List<ChatHistory> batch = new ArrayList<>(pending.size());
+            long minGeneration = Long.MAX_VALUE;
+            for (Pending item : pending) {
+                minGeneration = Math.min(minGeneration, item.generation());
+                Long cleared = clearedUsers.get(item.history().getUserId());
+                if (cleared != null && cleared > item.generation()) {
+                    discarded.increment();
+                } else {
+                    batch.add(item.history());
+                }
+            }
+            long oldestPending = minGeneration;
+            clearedUsers.values().removeIf(cleared -> cleared <= oldestPending);
+
+            if (!batch.isEmpty()) {
+                bulkIndex(batch);
+            }
+        }
+    }
+
+    /**
+     * Bulk 색인 (문서 ID = 히스토리 ID 이므로 재시도해도 중복 없음)
+     */
+    private void bulkIndex(List<ChatHistory> batch) {
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            try {
+                BulkRequest.Builder bulk = new BulkRequest.Builder();
+                for (ChatHistory history : batch) {
+                    bulk.operations(op -> op
+                            .index(idx -> idx
+                                    .index(indexName(history))
+                                    .id(history.getId())
+                                    .document(history)
+                            )
+                    );
+                }
+
+                BulkResponse response = elasticsearchClient.bulk(bulk.build());
+
+                int errors = 0;
+                if (response.errors()) {
+                    for (BulkResponseItem item : response.items()) {
+                        if (item.error() != null) {
+                            errors++;
+                            log.warn("대화 히스토리 색인 실패: id={}, reason={}", item.id(), item.error().reason());
+                        }
+                    }
+                }
+                written.add(batch.size() - errors);
+                failed.add(errors);
+                return;
+
+            } catch (Exception e) {
+                log.warn("대화 히스토리 Bulk 요청 실패 ({}/2, {}건): {}", attempt, batch.size(), e.getMessage());
+            }
+        }
+        failed.add(batch.size());
+    }
+
+    /**
+     * 색인 대기 항목 (큐에 넣을 때의 삭제 세대 번호 포함)
+     */
+    record Pending(ChatHistory history, long generation) {
+    }
+
+    private static String indexName(ChatHistory history) {
+        LocalDateTime createdAt = history.getCreatedAt() != null ? history.getCreatedAt() : LocalDateTime.now();
+        return INDEX_PREFIX + createdAt.format(INDEX_SUFFIX);
+    }
+
+    /**
+     * 월별 인덱스 공통 매핑 (userId는 keyword로 정확히 일치 조회)
+     */
+    private void putIndexTemplate() {
+        try {
+            elasticsearchClient.indices().putIndexTemplate(t -> t
+                    .name(TEMPLATE_NAME)
+                    .indexPatterns(INDEX_PATTERN)
+                    .template(tm -> tm
+                            .mappings(m -> m
+                                    .properties("id", p -> p.keyword(k -> k))
+                                    .properties("userId", p -> p.keyword(k -> k))
+                                    .properties("question", p -> p.text(tx -> tx))
+                                    .properties("answer", p -> p.text(tx -> tx.index(false)))
+                                    .properties("productCount", p -> p.integer(i -> i))
+                                    .properties("responseTime", p -> p.long_(l -> l))
+                                    .properties("createdAt", p -> p.date(d -> d))
+                            )
+                    )
+            );
+        } catch (Exception e) {
+            // ES 미기동 상태에서도 애플리케이션은 기동 (색인 시 동적 매핑 사용)
+            log.warn("대화 히스토리 인덱스 템플릿 등록 실패: {}", e.getMessage());
+        }
+    }
+}
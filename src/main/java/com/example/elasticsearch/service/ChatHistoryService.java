@@ -3,91 +3,332 @@ package com.example.elasticsearch.service;
 import com.example.elasticsearch.entity.ChatHistory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 채팅 히스토리 관리 서비스
  * 인메모리로 대화 히스토리를 저장하고 관리
- * 추후 DB 연동 시 Repository 패턴으로 확장 가능
+ * 사용자별 고정 크기 버퍼 사용 (같은 사용자의 저장은 버킷 단위로 직렬화, 조회는 복사본 반환)
+ * 전체 메모리 예산(max-bytes) 초과 시 가장 오래 사용하지 않은 사용자부터 제거, 유휴 사용자는 주기적으로 제거
+ * 저장 시 Elasticsearch(chat_history-yyyy.MM)에 write-behind로 영속화, 인메모리 버퍼는 최근 대화 캐시 역할
+ * 버퍼가 없거나(재시작 / 제거된 사용자) ES 내용을 아직 채우지 않은 사용자만 조회 시 ES에서 한 번 불러와 채움
  */
 @Service
 public class ChatHistoryService {
     private static final Logger logger = LoggerFactory.getLogger(ChatHistoryService.class);
     
-    // 사용자별 대화 히스토리 저장 (userId -> List<ChatHistory>)
-    private final Map<String, List<ChatHistory>> historyStore = new ConcurrentHashMap<>();
+    // 사용자별 대화 히스토리 저장 (userId -> 고정 크기 버퍼)
+    private final Map<String, BoundedHistoryBuffer> historyStore = new ConcurrentHashMap<>();
     
     // 최대 저장 개수 (메모리 관리)
     private static final int MAX_HISTORY_SIZE = 100;
     
+    // 통계에 노출할 최근 활동 사용자 수
+    private static final int RECENT_USER_SAMPLE = 10;
+    
+    // 예산 초과 시 이 비율까지 줄여서 매 저장마다 제거가 반복되지 않도록 함
+    private static final double EVICTION_LOW_WATERMARK = 0.9;
+    
+    // 전체 히스토리 메모리 예산 (추정 바이트)
+    @Value("${chat.history.max-bytes:67108864}")
+    private long maxBytes;
+    
+    // 마지막 저장/조회 후 이 시간이 지난 사용자는 제거
+    @Value("${chat.history.idle-ttl-minutes:60}")
+    private long idleTtlMinutes;
+    
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final Object evictionLock = new Object();
+    
+    // 통계 카운터 (저장/제거 시 증분 갱신 → getStats는 전체 순회 없이 O(1))
+    private final LongAdder totalChats = new LongAdder();
+    private final AtomicReferenceArray<String> recentUsers = new AtomicReferenceArray<>(RECENT_USER_SAMPLE);
+    private final AtomicLong recentUserCursor = new AtomicLong();
+    
+    // 제거 통계
+    private final LongAdder budgetEvictions = new LongAdder();
+    private final LongAdder idleEvictions = new LongAdder();
+    private final LongAdder evictedBytes = new LongAdder();
+    
+    // ES에 히스토리가 있는 사용자 수 (주기적으로 갱신한 값, getStats는 ES를 조회하지 않음)
+    private volatile Long persistedUsers;
+    private volatile long persistedUsersRefreshedAt;
+    
+    private final ChatHistoryPersistence persistence;
+    
+    public ChatHistoryService(ChatHistoryPersistence persistence) {
+        this.persistence = persistence;
+    }
+    
     /**
      * 대화 히스토리 저장
      */
     public void save(ChatHistory history) {
         String userId = history.getUserId();
+        long estimatedBytes = estimateBytes(history);
         
-        historyStore.computeIfAbsent(userId, k -> new ArrayList<>());
-        List<ChatHistory> userHistory = historyStore.get(userId);
+        // 같은 사용자의 저장/제거는 버킷 단위로 직렬화 (제거된 버퍼에 추가되어 바이트 집계가 어긋나지 않도록)
+        historyStore.compute(userId, (key, userHistory) -> {
+            BoundedHistoryBuffer buffer = userHistory != null ? userHistory : new BoundedHistoryBuffer(MAX_HISTORY_SIZE);
+            int sizeBefore = buffer.size();
+            totalBytes.addAndGet(buffer.append(history, estimatedBytes));
+            totalChats.add(buffer.size() - sizeBefore);
+            return buffer;
+        });
+        recordRecentUser(userId);
         
-        // 최대 개수 초과 시 오래된 것부터 삭제
-        if (userHistory.size() >= MAX_HISTORY_SIZE) {
-            userHistory.remove(0);
-            logger.info("📝 최대 히스토리 개수 초과, 오래된 히스토리 삭제");
-        }
+        // ES 기록은 flush 스레드가 처리 (호출자는 대기하지 않음)
+        persistence.enqueue(history);
         
-        userHistory.add(history);
         logger.info("💾 대화 히스토리 저장: id={}, userId={}", history.getId(), userId);
+        
+        if (totalBytes.get() > maxBytes) {
+            evictOverBudget(userId);
+        }
     }
     
     /**
      * 사용자의 전체 대화 히스토리 조회
      */
     public List<ChatHistory> getHistory(String userId) {
-        return historyStore.getOrDefault(userId, new ArrayList<>());
+        return getRecentHistory(userId, MAX_HISTORY_SIZE);
     }
     
     /**
-     * 최근 N개 대화 히스토리 조회
+     * 최근 N개 대화 히스토리 조회 (최대 MAX_HISTORY_SIZE개)
      */
     public List<ChatHistory> getRecentHistory(String userId, int limit) {
-        List<ChatHistory> history = getHistory(userId);
-        int size = history.size();
+        BoundedHistoryBuffer userHistory = historyStore.get(userId);
         
-        if (size <= limit) {
-            return new ArrayList<>(history);
+        // ES 내용까지 채워진 버퍼면 인메모리만 조회 (버퍼 건수가 limit보다 적어도 ES 조회 없음)
+        if (userHistory != null && userHistory.isHydrated()) {
+            return userHistory.snapshot(limit);
         }
         
-        return history.subList(size - limit, size);
+        // 재시작 이전 / 다른 인스턴스에서 저장된 대화는 ES에서 한 번 불러와 버퍼에 채움
+        List<ChatHistory> stored;
+        try {
+            stored = persistence.findRecent(userId, MAX_HISTORY_SIZE);
+        } catch (Exception e) {
+            logger.warn("⚠️ 저장된 대화 히스토리 조회 실패, 인메모리 결과만 반환: {}", e.getMessage());
+            return userHistory != null ? userHistory.snapshot(limit) : new ArrayList<>();
+        }
+        
+        BoundedHistoryBuffer hydrated = historyStore.compute(userId, (key, current) -> hydrate(current, stored));
+        if (totalBytes.get() > maxBytes) {
+            evictOverBudget(userId);
+        }
+        return hydrated != null ? hydrated.snapshot(limit) : new ArrayList<>();
     }
     
     /**
      * 사용자의 모든 히스토리 삭제
+     * ES 삭제(색인 대기 항목 포함)를 먼저 끝낸 뒤 인메모리 버퍼 제거 (그 사이 조회가 삭제 전 ES 내용으로 버퍼를 다시 채우지 않도록)
      */
     public void clearHistory(String userId) {
-        historyStore.remove(userId);
+        try {
+            persistence.deleteByUser(userId);
+        } finally {
+            BoundedHistoryBuffer removed = historyStore.remove(userId);
+            if (removed != null) {
+                totalBytes.addAndGet(-removed.bytes());
+                totalChats.add(-removed.size());
+            }
+        }
         logger.info("🗑️ 사용자 히스토리 삭제: userId={}", userId);
     }
     
     /**
-     * 전체 통계 조회
+     * 유휴 사용자 히스토리 제거 (주기 실행)
+     */
+    @Scheduled(fixedDelayString = "${chat.history.sweep-interval-ms:60000}")
+    public void evictIdleUsers() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleTtlMinutes);
+        int evicted = 0;
+        
+        for (Map.Entry<String, BoundedHistoryBuffer> entry : historyStore.entrySet()) {
+            if (entry.getValue().lastAccessMillis() < cutoff && evict(entry.getKey(), entry.getValue())) {
+                idleEvictions.increment();
+                evicted++;
+            }
+        }
+        
+        if (evicted > 0) {
+            logger.info("🧹 유휴 사용자 히스토리 제거: {}명, 현재 {} bytes", evicted, totalBytes.get());
+        }
+    }
+    
+    /**
+     * ES에 저장된 사용자 수 갱신 (주기 실행, 조회 실패 시 직전 값 유지)
+     */
+    @Scheduled(fixedDelayString = "${chat.history.user-count-refresh-ms:60000}")
+    public void refreshPersistedUsers() {
+        try {
+            persistedUsers = persistence.countUsers();
+            persistedUsersRefreshedAt = System.currentTimeMillis();
+        } catch (Exception e) {
+            logger.warn("⚠️ 저장된 사용자 수 갱신 실패 (직전 값 유지): {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * 전체 통계 조회 (ES 조회 없이 O(1))
+     * activeUsers는 인메모리 버퍼 기준, totalUsers는 ES에 저장된 전체 사용자 기준 (주기 갱신 값)
      */
     public Map<String, Object> getStats() {
-        int totalUsers = historyStore.size();
-        int totalChats = historyStore.values().stream()
-            .mapToInt(List::size)
-            .sum();
+        Map<String, Object> memory = new LinkedHashMap<>();
+        memory.put("estimatedBytes", totalBytes.get());
+        memory.put("maxBytes", maxBytes);
+        memory.put("budgetEvictions", budgetEvictions.sum());
+        memory.put("idleEvictions", idleEvictions.sum());
+        memory.put("evictedBytes", evictedBytes.sum());
         
-        return Map.of(
-            "totalUsers", totalUsers,
-            "totalChats", totalChats,
-            "activeUsers", historyStore.keySet()
-        );
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalUsers", persistedUsers);         // ES에 히스토리가 있는 사용자 (영속화 비활성화 / 아직 갱신 전이면 null)
+        stats.put("totalUsersRefreshedAt", persistedUsersRefreshedAt);
+        stats.put("totalChats", totalChats.sum());       // 인메모리 보관 건수
+        stats.put("activeUsers", historyStore.size());   // 인메모리 버퍼가 있는 사용자
+        stats.put("recentUsers", getRecentUsers());
+        stats.put("memory", memory);
+        stats.put("persistence", persistence.getStats());
+        return stats;
+    }
+    
+    /**
+     * 메모리 예산 초과 시 마지막 사용 시각이 오래된 사용자부터 제거 (현재 저장한 사용자는 제외)
+     */
+    private void evictOverBudget(String currentUserId) {
+        synchronized (evictionLock) {
+            long target = (long) (maxBytes * EVICTION_LOW_WATERMARK);
+            if (totalBytes.get() <= maxBytes) {
+                return;
+            }
+            
+            List<Map.Entry<String, BoundedHistoryBuffer>> candidates = new ArrayList<>(historyStore.entrySet());
+            candidates.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessMillis()));
+            
+            int evicted = 0;
+            for (Map.Entry<String, BoundedHistoryBuffer> entry : candidates) {
+                if (totalBytes.get() <= target) {
+                    break;
+                }
+                if (!entry.getKey().equals(currentUserId) && evict(entry.getKey(), entry.getValue())) {
+                    budgetEvictions.increment();
+                    evicted++;
+                }
+            }
+            
+            logger.warn("📝 히스토리 메모리 예산 초과, 사용자 {}명 제거: 현재 {} / {} bytes",
+                evicted, totalBytes.get(), maxBytes);
+        }
+    }
+    
+    /**
+     * ES 조회 결과와 현재 버퍼를 합친 새 버퍼 (historyStore.compute 안에서 호출, 같은 사용자의 저장과 직렬화됨)
+     * 다른 조회가 먼저 채웠으면 그대로 사용, 둘 다 비어 있으면 버퍼를 만들지 않음
+     */
+    private BoundedHistoryBuffer hydrate(BoundedHistoryBuffer current, List<ChatHistory> stored) {
+        if (current != null && current.isHydrated()) {
+            return current;
+        }
+        List<ChatHistory> local = current != null ? current.snapshot() : List.of();
+        if (stored.isEmpty() && local.isEmpty()) {
+            return current;
+        }
+        
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(MAX_HISTORY_SIZE);
+        for (ChatHistory history : merge(stored, local, MAX_HISTORY_SIZE)) {
+            buffer.append(history, estimateBytes(history));
+        }
+        buffer.markHydrated();
+        
+        totalBytes.addAndGet(buffer.bytes() - (current != null ? current.bytes() : 0));
+        totalChats.add(buffer.size() - (current != null ? current.size() : 0));
+        return buffer;
+    }
+    
+    private boolean evict(String userId, BoundedHistoryBuffer buffer) {
+        if (!historyStore.remove(userId, buffer)) {
+            return false;
+        }
+        long bytes = buffer.bytes();
+        totalBytes.addAndGet(-bytes);
+        totalChats.add(-buffer.size());
+        evictedBytes.add(bytes);
+        return true;
+    }
+    
+    /**
+     * 최근 저장한 사용자 기록 (고정 크기 순환 배열, 직전과 같은 사용자면 생략)
+     */
+    private void recordRecentUser(String userId) {
+        long last = recentUserCursor.get() - 1;
+        if (last >= 0 && userId.equals(recentUsers.get((int) (last % RECENT_USER_SAMPLE)))) {
+            return;
+        }
+        long cursor = recentUserCursor.getAndIncrement();
+        recentUsers.set((int) (cursor % RECENT_USER_SAMPLE), userId);
+    }
+    
+    /**
+     * 최근 활동 사용자 (최신순, 중복 제거, 최대 RECENT_USER_SAMPLE명)
+     */
+    private List<String> getRecentUsers() {
+        long end = recentUserCursor.get();
+        List<String> users = new ArrayList<>(RECENT_USER_SAMPLE);
+        for (long cursor = end - 1; cursor >= Math.max(0, end - RECENT_USER_SAMPLE); cursor--) {
+            String userId = recentUsers.get((int) (cursor % RECENT_USER_SAMPLE));
+            if (userId != null && !users.contains(userId)) {
+                users.add(userId);
+            }
+        }
+        return users;
+    }
+    
+    /**
+     * ES 조회 결과와 인메모리 결과 병합 (ID 기준 중복 제거, 생성 시간 오래된 순, 최근 limit개)
+     */
+    private static List<ChatHistory> merge(List<ChatHistory> stored, List<ChatHistory> local, int limit) {
+        Map<String, ChatHistory> byId = new LinkedHashMap<>();
+        stored.forEach(history -> byId.put(history.getId(), history));
+        local.forEach(history -> byId.put(history.getId(), history));
+        
+        List<ChatHistory> merged = new ArrayList<>(byId.values());
+        merged.sort(Comparator.comparing(ChatHistory::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())));
+        
+        int size = merged.size();
+        return size <= limit ? merged : new ArrayList<>(merged.subList(size - limit, size));
+    }
+    
+    /**
+     * 히스토리 1건의 대략적인 힙 점유 크기
+     * 객체 헤더/참조 + 문자열(UTF-16 기준 2바이트/문자) + 박싱 타입 + LocalDateTime
+     */
+    static long estimateBytes(ChatHistory history) {
+        return 96
+            + stringBytes(history.getId())
+            + stringBytes(history.getUserId())
+            + stringBytes(history.getQuestion())
+            + stringBytes(history.getAnswer())
+            + (history.getProductCount() != null ? 16 : 0)
+            + (history.getResponseTime() != null ? 24 : 0)
+            + (history.getCreatedAt() != null ? 72 : 0);
+    }
+    
+    private static long stringBytes(String value) {
+        return value != null ? 40 + 2L * value.length() : 0;
     }
 }
-
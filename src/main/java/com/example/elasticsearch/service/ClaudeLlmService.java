@@ -10,13 +10,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Claude API 연동 LLM 서비스
@@ -43,8 +48,10 @@ public class ClaudeLlmService implements LlmService {
     
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final StageMetrics stageMetrics;
     
-    public ClaudeLlmService() {
+    public ClaudeLlmService(StageMetrics stageMetrics) {
+        this.stageMetrics = stageMetrics;
         this.httpClient = HttpClient.newBuilder()
             .connectTimeout(Duration.ofSeconds(30))
             .build();
@@ -64,9 +71,10 @@ public class ClaudeLlmService implements LlmService {
             
             // 프롬프트 생성
             String prompt = buildPrompt(question, context, products);
+            RequestTiming.put("promptChars", prompt.length());
             
             // API 요청 생성
-            String requestBody = buildRequestBody(prompt);
+            String requestBody = buildRequestBody(prompt, false);
             
             HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(CLAUDE_API_URL))
@@ -78,10 +86,8 @@ public class ClaudeLlmService implements LlmService {
                 .build();
             
             // API 호출
-            HttpResponse<String> response = httpClient.send(
-                request, 
-                HttpResponse.BodyHandlers.ofString()
-            );
+            HttpResponse<String> response = stageMetrics.timeChecked(StageMetrics.LLM, StageMetrics.NONE, "claude",
+                () -> httpClient.send(request, HttpResponse.BodyHandlers.ofString()));
             
             // 응답 처리
             if (response.statusCode() == 200) {
@@ -104,6 +110,78 @@ public class ClaudeLlmService implements LlmService {
         }
     }
     
+    /**
+     * Messages API 스트리밍 (stream=true, SSE 응답의 content_block_delta 를 토큰으로 전달)
+     */
+    @Override
+    public Flux<String> streamResponse(String question, String context, List<Product> products) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            logger.error("❌ Claude API 키가 설정되지 않았습니다.");
+            return Flux.just("죄송합니다. Claude API 키가 설정되지 않았습니다. application.properties에서 claude.api.key를 설정해주세요.");
+        }
+        
+        return Flux.<String>create(sink -> {
+            logger.info("🤖 Claude API 스트리밍 호출 중...");
+            
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(CLAUDE_API_URL))
+                .header("Content-Type", "application/json")
+                .header("x-api-key", apiKey)
+                .header("anthropic-version", "2023-06-01")
+                .timeout(Duration.ofSeconds(60))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                    buildRequestBody(buildPrompt(question, context, products), true)))
+                .build();
+            
+            try {
+                HttpResponse<Stream<String>> response = httpClient.send(
+                    request,
+                    HttpResponse.BodyHandlers.ofLines()
+                );
+                
+                try (Stream<String> lines = response.body()) {
+                    if (response.statusCode() != 200) {
+                        String body = lines.collect(Collectors.joining("\n"));
+                        logger.error("❌ Claude API 스트리밍 오류: status={}, body={}", response.statusCode(), body);
+                        sink.error(new IllegalStateException("Claude API 오류 (Status: " + response.statusCode() + ")"));
+                        return;
+                    }
+                    
+                    Iterator<String> it = lines.iterator();
+                    while (it.hasNext() && !sink.isCancelled()) {
+                        String line = it.next();
+                        if (!line.startsWith("data:")) {
+                            continue;
+                        }
+                        
+                        JsonNode event = objectMapper.readTree(line.substring(5).trim());
+                        String type = event.path("type").asText();
+                        
+                        if ("content_block_delta".equals(type)) {
+                            String text = event.path("delta").path("text").asText("");
+                            if (!text.isEmpty()) {
+                                sink.next(text);
+                            }
+                        } else if ("message_stop".equals(type)) {
+                            break;
+                        } else if ("error".equals(type)) {
+                            sink.error(new IllegalStateException(
+                                "Claude API 스트리밍 오류: " + event.path("error").path("message").asText()));
+                            return;
+                        }
+                    }
+                }
+                
+                logger.info("✅ Claude API 스트리밍 완료");
+                sink.complete();
+                
+            } catch (Exception e) {
+                logger.error("❌ Claude API 스트리밍 실패: {}", e.getMessage(), e);
+                sink.error(e);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+    
     /**
      * Claude용 프롬프트 생성
      */
@@ -137,12 +215,15 @@ public class ClaudeLlmService implements LlmService {
     /**
      * Claude API 요청 바디 생성
      */
-    private String buildRequestBody(String prompt) {
+    private String buildRequestBody(String prompt, boolean stream) {
         try {
             ObjectNode root = objectMapper.createObjectNode();
             root.put("model", model);
             root.put("max_tokens", maxTokens);
             root.put("temperature", temperature);
+            if (stream) {
+                root.put("stream", true);
+            }
             
             ArrayNode messages = objectMapper.createArrayNode();
             ObjectNode message = objectMapper.createObjectNode();
@@ -0,0 +1,175 @@
+package com.example.elasticsearch.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 공통코드(SSG.COMM_CD_DTLC) 인메모리 캐시
+ * 기동 시 그룹 전체를 한 번에 읽어 불변 스냅샷으로 보관, 주기적으로 다시 읽어 참조만 교체
+ * 주문 조회마다 코드명을 Oracle에서 조회하지 않도록 하기 위한 용도
+ * DB 조회 실패 / 그룹 누락 시 하드코딩된 기본 매핑 사용
+ */
+@Slf4j
+@Service
+public class CommonCodeService {
+
+    // 클레임 사유
+    public static final String CLAIM_REASON = "OR07";
+    // 주문상태
+    public static final String ORDER_STATUS = "OC21";
+    // 배송방법
+    public static final String SHIPPING_METHOD = "PO21";
+
+    private static final List<String> GROUPS = List.of(CLAIM_REASON, ORDER_STATUS, SHIPPING_METHOD);
+
+    // 주문상태 코드 기본 매핑 (OC21)
+    private static final Map<String, String> ORDER_STATUS_MAP = new HashMap<>() {{
+        put("110", "입금대기");
+        put("120", "주문완료");
+        put("130", "배송지시");
+        put("140", "피킹완료");
+        put("145", "입고지연");
+        put("146", "결품요청");
+        put("150", "패킹완료");
+        put("160", "출하완료");
+        put("170", "배송완료");
+        put("180", "주문취소");
+        // 반품상태
+        put("210", "반품요청");
+        put("220", "반품접수");
+        put("230", "수거지시");
+        put("235", "수거지시확인");
+        put("240", "회수확인");
+        put("246", "판정대기");
+        put("248", "판정완료");
+        put("250", "입고완료");
+        put("260", "환불대기");
+        put("270", "환불완료");
+        put("299", "반품철회");
+        // 교환상태
+        put("310", "교환요청");
+        put("320", "교환접수");
+        put("330", "수거지시");
+        put("335", "수거지시확인");
+        put("336", "판정대기");
+        put("338", "판정완료");
+        put("340", "입고완료");
+        put("350", "출하지시");
+        put("360", "피킹완료");
+        put("370", "패킹완료");
+        put("380", "출하완료");
+        put("390", "배송완료");
+        put("399", "교환철회");
+    }};
+
+    // 배송방법 코드 기본 매핑 (PO21)
+    private static final Map<String, String> SHIPPING_METHOD_MAP = new HashMap<>() {{
+        put("10", "자사배송");
+        put("20", "택배배송");
+        put("30", "매장방문");
+        put("40", "등기");
+        put("50", "미배송");
+        put("60", "미발송");
+        put("70", "퀵/당일배송");
+        put("80", "글로벌배송");
+        put("90", "특수배송");
+    }};
+
+    private static final Map<String, Map<String, String>> DEFAULTS = Map.of(
+            CLAIM_REASON, Map.of(),
+            ORDER_STATUS, Map.copyOf(ORDER_STATUS_MAP),
+            SHIPPING_METHOD, Map.copyOf(SHIPPING_METHOD_MAP)
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${common-code.enabled:true}")
+    private boolean enabled;
+
+    // 그룹 코드 -> (코드 -> 코드명), 교체만 하고 내부는 수정하지 않음
+    private final AtomicReference<Map<String, Map<String, String>>> snapshot = new AtomicReference<>(DEFAULTS);
+    private volatile long loadedAtMillis;
+
+    public CommonCodeService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        refresh();
+    }
+
+    /**
+     * 코드명 조회 (없으면 코드 그대로 반환)
+     */
+    public String getName(String group, String code) {
+        if (code == null || code.isEmpty()) {
+            return code;
+        }
+        return snapshot.get().getOrDefault(group, Map.of()).getOrDefault(code, code);
+    }
+
+    /**
+     * 공통코드 재조회 (주기 실행)
+     * 실패하거나 비어 있는 그룹은 이전 스냅샷 값 유지
+     */
+    @Scheduled(fixedDelayString = "${common-code.refresh-interval-ms:600000}",
+            initialDelayString = "${common-code.refresh-interval-ms:600000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        String sql = """
+            SELECT COMM_CD_GRP_NO, COMM_CD_NO, COMM_CD_NM
+            FROM SSG.COMM_CD_DTLC
+            WHERE COMM_CD_GRP_NO IN (?, ?, ?)
+            """;
+
+        try {
+            Map<String, Map<String, String>> loaded = new HashMap<>();
+            jdbcTemplate.query(sql, rs -> {
+                loaded.computeIfAbsent(rs.getString("COMM_CD_GRP_NO"), group -> new HashMap<>())
+                        .put(rs.getString("COMM_CD_NO"), rs.getString("COMM_CD_NM"));
+            }, GROUPS.toArray());
+
+            Map<String, Map<String, String>> previous = snapshot.get();
+            Map<String, Map<String, String>> next = new HashMap<>();
+            for (String group : GROUPS) {
+                Map<String, String> codes = loaded.get(group);
+                next.put(group, codes != null && !codes.isEmpty() ? Map.copyOf(codes) : previous.get(group));
+            }
+
+            snapshot.set(Map.copyOf(next));
+            loadedAtMillis = System.currentTimeMillis();
+            log.info("📚 공통코드 로드 완료: {}", getStats().get("groups"));
+
+        } catch (Exception e) {
+            log.warn("⚠️ 공통코드 로드 실패, 이전 값 유지: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 그룹별 코드 수 / 마지막 로드 시각
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Integer> groups = new LinkedHashMap<>();
+        Map<String, Map<String, String>> current = snapshot.get();
+        GROUPS.forEach(group -> groups.put(group, current.get(group).size()));
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("groups", groups);
+        stats.put("loadedAtMillis", loadedAtMillis);
+        return stats;
+    }
+}
@@ -11,10 +11,26 @@ import org.springframework.ai.chat.messages.SystemMessage;
 import org.springframework.ai.chat.messages.UserMessage;
 import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * 상담 가이드 RAG 서비스
@@ -27,156 +43,384 @@ public class ConsultationService {
     private final ConsultationVectorSearchService vectorSearchService;
     private final ChatModel chatModel;  // AWS Bedrock Claude
     private final OrderService orderService;  // 주문 정보 조회 (고도화 1차)
+    private final LlmResponseCache responseCache;  // 동일 프롬프트 응답 캐시
+    private final StageMetrics stageMetrics;  // 단계별 처리 시간
+    
+    @Qualifier("consultationExecutor")
+    private final Executor consultationExecutor;  // 검색 결과 후처리 (컨텍스트 구성)
+    
+    @Qualifier("orderExecutor")
+    private final Executor orderExecutor;  // 주문 조회 (Oracle JDBC 전용)
+    
+    @Qualifier("searchExecutor")
+    private final Executor searchExecutor;  // 가이드 검색 임베딩
+    
+    @Qualifier("streamingExecutor")
+    private final Executor streamingExecutor;  // SSE 스트리밍 검색 단계 실행
     
     @Value("${llm.provider:mock}")
     private String llmProvider;
     
+    @Value("${consultation.timeout.order-ms:1500}")
+    private long orderTimeoutMs;
+    
+    @Value("${consultation.timeout.retrieval-ms:5000}")
+    private long retrievalTimeoutMs;
+    
+    @Value("${llm.stream.timeout-ms:180000}")
+    private long streamTimeoutMs;
+    
+    @Value("${llm.timeout-ms:120000}")
+    private long llmTimeoutMs;
+    
     /**
-     * 상담 가이드 RAG 검색 + AI 응답 생성
+     * 상담 가이드 RAG 검색 (비동기)
+     * ES kNN / Bedrock 응답 대기 중에는 스레드를 점유하지 않음
+     * 임베딩은 searchExecutor, 주문 조회(JDBC)는 orderExecutor에서 실행
+     * 컨텍스트 구성 / 프롬프트 fingerprint / 응답 캐시 저장은 consultationExecutor에서 실행 (ES / Bedrock I/O 스레드 점유 없음)
+     */
+    public CompletableFuture<ConsultationResponse> searchAsync(ConsultationRequest request) {
+        long startTime = System.currentTimeMillis();
+        RequestTiming timing = RequestTiming.current();
+        
+        log.info("🔍 상담 가이드 RAG 검색 시작 (async): query={}, topK={}, mode={}, ordNo={}, ordItemSeq={}", 
+                request.getQuery(), request.getTopK(), request.getMode(), request.getOrdNo(), request.getOrdItemSeq());
+        
+        return retrieveAsync(request).thenComposeAsync(retrieval -> {
+            List<Consultation> consultations = retrieval.consultations();
+            List<OrderInfo> orderItems = retrieval.orderItems();
+            String context = buildContext(request.getQuery(), consultations, orderItems);
+            
+            CompletableFuture<String> answerFuture;
+            if ("bedrock".equals(llmProvider) && !consultations.isEmpty()) {
+                answerFuture = generateAiResponseAsync(request.getQuery(), context, consultations, orderItems,
+                        Boolean.TRUE.equals(request.getBypassCache()), timing);
+            } else {
+                answerFuture = CompletableFuture.completedFuture(context);  // LLM 미사용시 context 그대로 반환
+            }
+            
+            return answerFuture.thenApply(aiAnswer -> {
+                long responseTime = System.currentTimeMillis() - startTime;
+                ConsultationResponse response = new ConsultationResponse(
+                    request.getQuery(),
+                    context,
+                    consultations,
+                    aiAnswer,
+                    responseTime
+                );
+                response.setTimings(RequestTiming.snapshot(timing));
+                
+                log.info("✅ 상담 가이드 RAG 검색 완료 (async): {}건 발견, {}ms", consultations.size(), responseTime);
+                return response;
+            });
+        }, consultationExecutor);
+    }
+    
+    /**
+     * 상담 가이드 RAG 검색 + AI 응답 스트리밍 (SSE)
+     * 1. retrieval: 검색된 가이드와 컨텍스트를 LLM 호출 전에 바로 전송
+     * 2. token: Bedrock ConverseStream 토큰을 생성되는 대로 전송
+     * 3. done: 전체 응답 시간 전송
      * @param request 검색 요청
-     * @return 검색 결과 및 AI 응답
+     * @return SSE emitter
      */
-    public ConsultationResponse search(ConsultationRequest request) {
+    public SseEmitter searchStream(ConsultationRequest request) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        streamingExecutor.execute(() -> doSearchStream(request, emitter));
+        return emitter;
+    }
+    
+    private void doSearchStream(ConsultationRequest request, SseEmitter emitter) {
         long startTime = System.currentTimeMillis();
         
-        log.info("🔍 상담 가이드 RAG 검색 시작: query={}, topK={}, ordNo={}, ordItemSeq={}", 
-                request.getQuery(), request.getTopK(), request.getOrdNo(), request.getOrdItemSeq());
+        log.info("🔍 상담 가이드 RAG 스트리밍 시작: query={}, topK={}, mode={}, ordNo={}", 
+                request.getQuery(), request.getTopK(), request.getMode(), request.getOrdNo());
         
+        try {
+            Retrieval retrieval = retrieve(request);
+            List<Consultation> consultations = retrieval.consultations();
+            List<OrderInfo> orderItems = retrieval.orderItems();
+            String context = buildContext(request.getQuery(), consultations, orderItems);
+            
+            ConsultationResponse retrievalEvent = new ConsultationResponse(request.getQuery(), context, consultations);
+            retrievalEvent.setResponseTime(System.currentTimeMillis() - startTime);
+            SseEvents.send(emitter, SseEvents.RETRIEVAL, retrievalEvent);
+            
+            // LLM 미사용시 context 그대로 한 번에 전송
+            Flux<String> tokens = "bedrock".equals(llmProvider) && !consultations.isEmpty()
+                ? chatModel.stream(buildPrompt(request.getQuery(), context, orderItems))
+                    .filter(response -> response.getResult() != null
+                        && response.getResult().getOutput() != null
+                        && response.getResult().getOutput().getContent() != null)
+                    .map(response -> response.getResult().getOutput().getContent())
+                : Flux.just(context);
+            
+            Disposable subscription = tokens.subscribe(
+                token -> SseEvents.sendToken(emitter, token),
+                error -> {
+                    log.error("❌ AI 응답 스트리밍 실패: {}", error.getMessage(), error);
+                    SseEvents.sendErrorAndComplete(emitter, error);
+                },
+                () -> {
+                    long responseTime = System.currentTimeMillis() - startTime;
+                    log.info("✅ 상담 가이드 RAG 스트리밍 완료: {}건, {}ms", consultations.size(), responseTime);
+                    try {
+                        SseEvents.send(emitter, SseEvents.DONE, Map.of("responseTime", responseTime));
+                        emitter.complete();
+                    } catch (Exception e) {
+                        emitter.completeWithError(e);
+                    }
+                }
+            );
+            
+            // 클라이언트 연결 종료/타임아웃 시 LLM 스트림도 취소
+            emitter.onTimeout(subscription::dispose);
+            emitter.onError(e -> subscription.dispose());
+            
+        } catch (Exception e) {
+            log.error("❌ 상담 가이드 RAG 스트리밍 실패: {}", e.getMessage(), e);
+            SseEvents.sendErrorAndComplete(emitter, e);
+        }
+    }
+    
+    /**
+     * 주문 정보 조회 + 상담 가이드 검색 (완료까지 대기)
+     */
+    private Retrieval retrieve(ConsultationRequest request) {
+        try {
+            return retrieveAsync(request).join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            log.error("❌ 상담 가이드 검색 실패: {}", cause.toString());
+            throw cause instanceof RuntimeException runtimeException
+                ? runtimeException
+                : new RuntimeException("상담 가이드 검색 실패", cause);
+        }
+    }
+    
+    /**
+     * 주문 정보 조회 + 상담 가이드 검색
+     * 두 단계는 서로 독립적이므로 병렬 실행하고, 단계별 타임아웃 적용
+     * 주문 조회는 전용 풀(orderExecutor)에서 실행하여 Oracle 지연이 가이드 검색 임베딩을 밀어내지 않도록 함
+     * 가이드 검색의 kNN은 ES 비동기 요청 (응답 대기 중 스레드 점유 없음)
+     */
+    private CompletableFuture<Retrieval> retrieveAsync(ConsultationRequest request) {
         // 1. 주문 정보 조회 (고도화 1차: 주문번호가 있는 경우)
-        OrderInfo orderInfo = null;
+        //    가이드 검색과 독립적이므로 병렬 실행, 지연 시 "주문 정보 없음"으로 진행
+        //    상품순번 미지정 시 주문의 전체 상품을 한 번의 쿼리로 조회
+        CompletableFuture<List<OrderInfo>> orderFuture = CompletableFuture.completedFuture(List.of());
         if (request.getOrdNo() != null && !request.getOrdNo().isEmpty()) {
-            Integer ordItemSeq = request.getOrdItemSeq() != null ? request.getOrdItemSeq() : 1;
-            orderInfo = orderService.getOrderInfo(request.getOrdNo(), ordItemSeq);
-            if (orderInfo != null) {
-                log.info("📦 주문 정보 조회 성공: 상태={}, 상품={}", 
-                        orderInfo.getOrdItemStatNm(), orderInfo.getItemNm());
-            }
+            List<Integer> ordItemSeqs = requestedItemSeqs(request);
+            orderFuture = supplyOrderItems(request.getOrdNo(), ordItemSeqs)
+                .orTimeout(orderTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("⚠️ 주문 정보 조회 지연/실패, 주문 정보 없이 진행: ordNo={}, error={}", 
+                            request.getOrdNo(), unwrap(e).toString());
+                    return List.of();
+                });
         }
         
-        // 2. 벡터 검색으로 유사한 상담 가이드 찾기
-        List<Consultation> consultations = vectorSearchService.vectorSearch(
-            request.getQuery(), 
-            request.getTopK()
-        );
+        // 2. 검색 모드(벡터/하이브리드)로 유사한 상담 가이드 찾기
+        CompletableFuture<List<Consultation>> retrievalFuture = vectorSearchService
+            .searchAsync(
+                request.getQuery(), 
+                request.getTopK(),
+                request.getMode(),
+                request.getUseYn(),
+                searchExecutor
+            )
+            .orTimeout(retrievalTimeoutMs, TimeUnit.MILLISECONDS);
         
-        // 3. 검색 결과를 Claude가 이해할 수 있는 컨텍스트로 변환 (주문 정보 포함)
-        String context = buildContext(request.getQuery(), consultations, orderInfo);
+        return retrievalFuture.thenCombineAsync(orderFuture, (consultations, orderItems) -> {
+            if (!orderItems.isEmpty()) {
+                log.info("📦 주문 정보 조회 성공: {}개 상품, 상태={}", orderItems.size(),
+                        orderItems.stream().map(OrderInfo::getOrdItemStatNm).distinct().toList());
+            }
+            return new Retrieval(consultations, orderItems);
+        }, consultationExecutor);
+    }
+    
+    /**
+     * 주문 상품 조회를 orderExecutor에 제출 (풀 포화로 거절되면 실패한 future 반환 → 주문 정보 없이 진행)
+     */
+    private CompletableFuture<List<OrderInfo>> supplyOrderItems(String ordNo, List<Integer> ordItemSeqs) {
+        try {
+            return CompletableFuture.supplyAsync(() -> orderService.getCachedOrderItems(ordNo, ordItemSeqs), orderExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    /**
+     * 요청의 상품순번 (ordItemSeqs + ordItemSeq, 비어 있으면 전체 상품)
+     */
+    private static List<Integer> requestedItemSeqs(ConsultationRequest request) {
+        List<Integer> seqs = new ArrayList<>();
+        if (request.getOrdItemSeqs() != null) {
+            seqs.addAll(request.getOrdItemSeqs());
+        }
+        if (request.getOrdItemSeq() != null) {
+            seqs.add(request.getOrdItemSeq());
+        }
+        return seqs;
+    }
+    
+    /**
+     * LLM 호출 전 단계(주문 조회 + 가이드 검색) 결과
+     */
+    private record Retrieval(List<Consultation> consultations, List<OrderInfo> orderItems) {
+    }
+    
+    /**
+     * Claude AI 응답 생성 (비동기)
+     * ConverseStream 토큰을 모아 전체 응답으로 반환 (Bedrock 비동기 클라이언트 사용, 응답 대기 중 스레드 점유 없음)
+     * llm.timeout-ms 안에 끝나지 않으면 스트림을 취소하고 오류 안내 + 컨텍스트 반환
+     */
+    private CompletableFuture<String> generateAiResponseAsync(String query, String context, List<Consultation> consultations,
+                                                              List<OrderInfo> orderItems, boolean bypassCache,
+                                                              RequestTiming timing) {
+        Prompt prompt = buildPrompt(query, context, orderItems);
+        
+        String cacheKey = responseCache.fingerprint(prompt);
+        RequestTiming.put(timing, "promptChars", LlmResponseCache.promptChars(prompt));
+        if (!bypassCache) {
+            String cached = responseCache.get(cacheKey);
+            RequestTiming.put(timing, "llmCacheHit", cached != null);
+            if (cached != null) {
+                log.info("⚡ LLM 응답 캐시 적중");
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
         
-        // 4. AI 응답 생성 (Bedrock 모드일 때만)
-        String aiAnswer = null;
-        if ("bedrock".equals(llmProvider) && !consultations.isEmpty()) {
-            log.info("🤖 AWS Bedrock Claude AI 응답 생성 중...");
-            aiAnswer = generateAiResponse(request.getQuery(), context, consultations, orderInfo);
-            log.info("✅ AI 응답 생성 완료");
+        return stageMetrics.timeAsync(StageMetrics.LLM, StageMetrics.NONE, "bedrock",
+                () -> chatModel.stream(prompt)
+                    .filter(response -> response.getResult() != null
+                        && response.getResult().getOutput() != null
+                        && response.getResult().getOutput().getContent() != null)
+                    .map(response -> response.getResult().getOutput().getContent())
+                    .collect(Collectors.joining())
+                    .timeout(Duration.ofMillis(llmTimeoutMs))
+                    .toFuture())
+            .thenApplyAsync(answer -> {
+                cacheAnswer(cacheKey, answer, consultations, orderItems);
+                return answer;
+            }, consultationExecutor)
+            .exceptionally(e -> {
+                Throwable cause = unwrap(e);
+                log.error("❌ AI 응답 생성 실패: {}", cause.getMessage(), cause);
+                return "AI 응답 생성 중 오류가 발생했습니다: " + cause.getMessage() + "\n\n" + context;
+            });
+    }
+    
+    /**
+     * 응답 캐시 저장 (재색인/주문 상태 변경 시 무효화할 수 있도록 참조 ID로 태깅)
+     */
+    private void cacheAnswer(String cacheKey, String answer, List<Consultation> consultations, List<OrderInfo> orderItems) {
+        Set<String> csasiIds = consultations.stream()
+            .map(Consultation::getCsasiId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Set<String> ordNos = orderItems.stream()
+            .map(OrderInfo::getOrdNo)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        responseCache.put(cacheKey, answer, csasiIds, ordNos);
+    }
+    
+    /**
+     * 시스템 + 사용자 프롬프트 생성 (주문 정보 포함)
+     */
+    private Prompt buildPrompt(String query, String context, List<OrderInfo> orderItems) {
+        // 주문 정보가 있을 때와 없을 때 시스템 프롬프트 분기
+        String systemPrompt;
+        if (!orderItems.isEmpty()) {
+            systemPrompt = """
+                당신은 친절하고 전문적인 고객 상담 AI 어시스턴트입니다.
+                사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
+                
+                역할:
+                - 상담원이 고객 문의에 대응할 수 있도록 상담 가이드를 정리해서 알려주세요.
+                - 주문 정보가 제공되면, 해당 주문의 상태를 고려하여 맞춤형 안내를 해주세요.
+                
+                응답 가이드:
+                1. 먼저 주문 상태를 요약하고, 현재 가능한 처리 방법을 안내해주세요.
+                2. 상담 가이드를 바탕으로 구체적인 처리 절차를 설명해주세요.
+                3. 고객에게 안내할 멘트가 있다면 포함해주세요.
+                4. 유의사항이 있다면 강조해주세요.
+                5. 이모지를 적절히 활용하여 읽기 쉽게 작성해주세요.
+                """;
         } else {
-            aiAnswer = context;  // LLM 미사용시 context 그대로 반환
+            systemPrompt = """
+                당신은 친절하고 전문적인 고객 상담 AI 어시스턴트입니다.
+                사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
+                
+                역할:
+                - 상담원이 고객 문의에 대응할 수 있도록 상담 가이드를 정리해서 알려주세요.
+                - 검색된 상담 가이드를 바탕으로 명확하고 친절하게 안내해주세요.
+                
+                응답 가이드:
+                1. 핵심 내용을 먼저 요약해주세요.
+                2. 단계별 처리 방법이 있다면 순서대로 정리해주세요.
+                3. 고객에게 안내할 멘트가 있다면 포함해주세요.
+                4. 유의사항이 있다면 강조해주세요.
+                5. 이모지를 적절히 활용하여 읽기 쉽게 작성해주세요.
+                """;
         }
         
-        long responseTime = System.currentTimeMillis() - startTime;
+        // 사용자 프롬프트 생성
+        StringBuilder userPromptBuilder = new StringBuilder();
+        userPromptBuilder.append("=== 상담원 질문 ===\n");
+        userPromptBuilder.append(query).append("\n\n");
         
-        // 5. 응답 생성
-        ConsultationResponse response = new ConsultationResponse(
-            request.getQuery(),
-            context,
-            consultations,
-            aiAnswer,
-            responseTime
-        );
+        // 주문 정보가 있으면 추가
+        if (!orderItems.isEmpty()) {
+            userPromptBuilder.append(OrderInfo.toSummary(orderItems)).append("\n");
+            
+            // 상태별 가능한 액션 추가 (여러 상품이 같은 상태면 한 번만)
+            String availableActions = orderItems.stream()
+                .map(OrderInfo::getOrdItemStatCd)
+                .distinct()
+                .map(orderService::getAvailableActions)
+                .filter(actions -> !actions.isEmpty())
+                .collect(Collectors.joining("\n"));
+            if (!availableActions.isEmpty()) {
+                userPromptBuilder.append("=== 현재 상태에서 가능한 처리 ===\n");
+                userPromptBuilder.append(availableActions).append("\n\n");
+            }
+        }
         
-        log.info("✅ 상담 가이드 RAG 검색 완료: {}건 발견, {}ms", consultations.size(), responseTime);
+        userPromptBuilder.append("=== 검색된 상담 가이드 ===\n");
+        userPromptBuilder.append(context).append("\n\n");
+        userPromptBuilder.append("위 정보를 바탕으로 송그랜트에게 도움이 되는 답변을 작성해주세요.");
         
-        return response;
+        SystemMessage systemMessage = new SystemMessage(systemPrompt);
+        UserMessage userMessage = new UserMessage(userPromptBuilder.toString());
+        return new Prompt(List.of(systemMessage, userMessage));
     }
     
     /**
-     * Claude AI 응답 생성 (주문 정보 포함)
+     * 컨텍스트 생성 (처리 시간 측정)
      */
-    private String generateAiResponse(String query, String context, List<Consultation> consultations, OrderInfo orderInfo) {
-        try {
-            // 주문 정보가 있을 때와 없을 때 시스템 프롬프트 분기
-            String systemPrompt;
-            if (orderInfo != null) {
-                systemPrompt = """
-                    당신은 친절하고 전문적인 고객 상담 AI 어시스턴트입니다.
-                    사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
-                    
-                    역할:
-                    - 상담원이 고객 문의에 대응할 수 있도록 상담 가이드를 정리해서 알려주세요.
-                    - 주문 정보가 제공되면, 해당 주문의 상태를 고려하여 맞춤형 안내를 해주세요.
-                    
-                    응답 가이드:
-                    1. 먼저 주문 상태를 요약하고, 현재 가능한 처리 방법을 안내해주세요.
-                    2. 상담 가이드를 바탕으로 구체적인 처리 절차를 설명해주세요.
-                    3. 고객에게 안내할 멘트가 있다면 포함해주세요.
-                    4. 유의사항이 있다면 강조해주세요.
-                    5. 이모지를 적절히 활용하여 읽기 쉽게 작성해주세요.
-                    """;
-            } else {
-                systemPrompt = """
-                    당신은 친절하고 전문적인 고객 상담 AI 어시스턴트입니다.
-                    사용자는 '송그랜트'이고, 당신은 '웬즈데이'입니다.
-                    
-                    역할:
-                    - 상담원이 고객 문의에 대응할 수 있도록 상담 가이드를 정리해서 알려주세요.
-                    - 검색된 상담 가이드를 바탕으로 명확하고 친절하게 안내해주세요.
-                    
-                    응답 가이드:
-                    1. 핵심 내용을 먼저 요약해주세요.
-                    2. 단계별 처리 방법이 있다면 순서대로 정리해주세요.
-                    3. 고객에게 안내할 멘트가 있다면 포함해주세요.
-                    4. 유의사항이 있다면 강조해주세요.
-                    5. 이모지를 적절히 활용하여 읽기 쉽게 작성해주세요.
-                    """;
-            }
-            
-            // 사용자 프롬프트 생성
-            StringBuilder userPromptBuilder = new StringBuilder();
-            userPromptBuilder.append("=== 상담원 질문 ===\n");
-            userPromptBuilder.append(query).append("\n\n");
-            
-            // 주문 정보가 있으면 추가
-            if (orderInfo != null) {
-                userPromptBuilder.append(orderInfo.toSummary()).append("\n");
-                
-                // 상태별 가능한 액션 추가
-                String availableActions = orderService.getAvailableActions(orderInfo.getOrdItemStatCd());
-                if (!availableActions.isEmpty()) {
-                    userPromptBuilder.append("=== 현재 상태에서 가능한 처리 ===\n");
-                    userPromptBuilder.append(availableActions).append("\n\n");
-                }
-            }
-            
-            userPromptBuilder.append("=== 검색된 상담 가이드 ===\n");
-            userPromptBuilder.append(context).append("\n\n");
-            userPromptBuilder.append("위 정보를 바탕으로 송그랜트에게 도움이 되는 답변을 작성해주세요.");
-            
-            SystemMessage systemMessage = new SystemMessage(systemPrompt);
-            UserMessage userMessage = new UserMessage(userPromptBuilder.toString());
-            Prompt prompt = new Prompt(List.of(systemMessage, userMessage));
-            
-            return chatModel.call(prompt).getResult().getOutput().getContent();
-            
-        } catch (Exception e) {
-            log.error("❌ AI 응답 생성 실패: {}", e.getMessage(), e);
-            return "AI 응답 생성 중 오류가 발생했습니다: " + e.getMessage() + "\n\n" + context;
-        }
+    private String buildContext(String query, List<Consultation> consultations, List<OrderInfo> orderItems) {
+        return stageMetrics.time(StageMetrics.CONTEXT, StageMetrics.NONE, StageMetrics.NONE,
+            () -> formatContext(query, consultations, orderItems));
     }
     
     /**
      * Claude API용 컨텍스트 생성 (주문 정보 포함)
      * @param query 사용자 질문
      * @param consultations 검색된 상담 가이드 목록
-     * @param orderInfo 주문 정보 (nullable)
+     * @param orderItems 주문 상품 정보 (없으면 빈 목록)
      * @return 포맷팅된 컨텍스트
      */
-    private String buildContext(String query, List<Consultation> consultations, OrderInfo orderInfo) {
+    private String formatContext(String query, List<Consultation> consultations, List<OrderInfo> orderItems) {
         StringBuilder context = new StringBuilder();
         
         context.append("상담원 문의: ").append(query).append("\n\n");
         
         // 주문 정보가 있으면 추가
-        if (orderInfo != null) {
-            context.append(orderInfo.toSummary()).append("\n");
+        if (!orderItems.isEmpty()) {
+            context.append(OrderInfo.toSummary(orderItems)).append("\n");
         }
         
         context.append("검색된 유사 상담 가이드 ").append(consultations.size()).append("개:\n\n");
@@ -251,6 +495,58 @@ public class ConsultationService {
         }
     }
     
+    /**
+     * 상담 가이드 재색인 시 LLM 응답 캐시 + 가이드 검색 결과 캐시 무효화
+     */
+    public int invalidateGuideCache(String csasiId) {
+        vectorSearchService.invalidateCache();
+        return responseCache.invalidateCsasi(csasiId);
+    }
+    
+    /**
+     * 주문 상품 일괄 조회 (상담 화면의 주문 상세 표시용)
+     * @param ordNos 주문번호 목록
+     * @param ordItemSeqs 상품순번 목록 (비어 있으면 전체 상품)
+     */
+    public List<OrderInfo> getOrderItems(List<String> ordNos, List<Integer> ordItemSeqs) {
+        return orderService.getOrderItems(ordNos, ordItemSeqs);
+    }
+    
+    /**
+     * 주문 상태 변경 시 주문 정보 캐시 + 해당 주문을 참조한 LLM 응답 캐시 무효화
+     * @return 삭제된 캐시 수 (llmResponses, orderSnapshots)
+     */
+    public Map<String, Integer> invalidateOrderCache(String ordNo) {
+        int orderSnapshots = orderService.invalidateOrder(ordNo);
+        int llmResponses = responseCache.invalidateOrder(ordNo);
+        return Map.of("llmResponses", llmResponses, "orderSnapshots", orderSnapshots);
+    }
+    
+    /**
+     * LLM 응답 캐시 + 가이드 검색 결과 캐시 전체 삭제
+     */
+    public void clearCache() {
+        responseCache.clear();
+        vectorSearchService.invalidateCache();
+    }
+    
+    /**
+     * LLM 응답 캐시 통계 (+ 주문 정보 캐시: orderSnapshot, 가이드 검색 결과 캐시: semanticSearch)
+     */
+    public Map<String, Object> getCacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(responseCache.getStats());
+        stats.put("orderSnapshot", orderService.getCacheStats());
+        stats.put("semanticSearch", vectorSearchService.getCacheStats());
+        return stats;
+    }
+    
+    /**
+     * CompletionException 등 래핑 예외에서 원인 추출
+     */
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+    
     /**
      * 텍스트 검색 (키워드 기반)
      * @param request 검색 요청
@@ -265,7 +561,7 @@ public class ConsultationService {
             request.getTopK()
         );
         
-        String context = buildContext(request.getQuery(), consultations, null);
+        String context = buildContext(request.getQuery(), consultations, List.of());
         
         ConsultationResponse response = new ConsultationResponse(
             request.getQuery(),
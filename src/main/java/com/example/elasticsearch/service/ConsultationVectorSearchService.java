@@ -1,138 +1,111 @@
 package com.example.elasticsearch.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch.core.SearchRequest;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import com.example.elasticsearch.dto.SearchMode;
 import com.example.elasticsearch.entity.Consultation;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
- * 상담 가이드 벡터 검색 서비스
+ * 상담 가이드 벡터 검색 서비스 (csasi_consultation)
+ * 벡터 / 텍스트 / 하이브리드 검색은 AbstractVectorSearchService 공통 구현, 필터는 사용 여부(use_yn)
  */
-@Slf4j
 @Service
-@RequiredArgsConstructor
-public class ConsultationVectorSearchService {
-    
-    private final ElasticsearchClient elasticsearchClient;
-    private final EmbeddingService embeddingService;
-    
-    private static final String INDEX_NAME = "csasi_consultation";
-    private static final String VECTOR_FIELD = "content_vector";
-    
+public class ConsultationVectorSearchService extends AbstractVectorSearchService<Consultation, String> {
+
+    // 사용 여부 필터 (기본: 사용 중인 가이드만)
+    private static final String USE_YN_FIELD = "use_yn";
+    public static final String USE_YN_ACTIVE = "Y";
+
+    // nori 분석 필드 (Elasticsearch 매핑 기준 필드명)
+    private static final IndexSpec<Consultation> INDEX_SPEC = new IndexSpec<>(
+        "상담 가이드",
+        "csasi_consultation",
+        "content_vector",
+        List.of("csasi_name^3", "full_content"),
+        SourceConfig.of(src -> src
+            .filter(f -> f
+                .includes("csasi_id", "csasi_name", "browse_count",
+                          "properties", "full_content", "use_yn")
+            )
+        ),
+        Consultation.class,
+        Consultation::setScore,
+        Consultation::copy
+    );
+
+    public ConsultationVectorSearchService(ElasticsearchClient elasticsearchClient,
+                                           KnnSearchClient knnSearchClient,
+                                           EmbeddingService embeddingService, StageMetrics stageMetrics,
+                                           @Value("${search.knn.consultation.candidate-ratio:15}") double candidateRatio,
+                                           @Value("${search.knn.consultation.min-candidates:50}") int minCandidates,
+                                           @Value("${search.knn.consultation.max-candidates:1000}") int maxCandidates,
+                                           @Value("${search.single-flight.max-in-flight:1000}") int maxInFlight) {
+        super(INDEX_SPEC, elasticsearchClient, knnSearchClient, embeddingService, stageMetrics,
+            new KnnCandidatePolicy(candidateRatio, minCandidates, maxCandidates), maxInFlight);
+    }
+
     /**
-     * 벡터 검색 (기본 k=5)
+     * 벡터 검색 (기본 k=5, 사용 중인 가이드만)
      */
     public List<Consultation> vectorSearch(String queryText) {
         return vectorSearch(queryText, 5);
     }
-    
+
     /**
-     * 벡터 검색
+     * 벡터 검색 (사용 중인 가이드만)
      * @param queryText 검색 텍스트
      * @param topK 상위 k개 결과
      * @return 유사한 상담 가이드 목록
      */
     public List<Consultation> vectorSearch(String queryText, int topK) {
-        try {
-            log.info("상담 가이드 벡터 검색 시작: query={}, topK={}", queryText, topK);
-            
-            // 1. 검색어를 벡터로 변환
-            List<Float> queryVector = embeddingService.getVector(queryText);
-            
-            // 2. k-NN 검색 요청 생성
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index(INDEX_NAME)
-                .knn(k -> k
-                    .field(VECTOR_FIELD)
-                    .queryVector(queryVector)
-                    .k(topK)
-                    .numCandidates(100)
-                )
-                .source(src -> src
-                    .filter(f -> f
-                        .includes("csasi_id", "csasi_name", "browse_count", 
-                                  "properties", "full_content", "use_yn")
-                    )
-                )
-            );
-            
-            // 3. 검색 실행
-            SearchResponse<Consultation> response = elasticsearchClient.search(
-                searchRequest, 
-                Consultation.class
-            );
-            
-            // 4. 결과 변환 (유사도 점수 포함)
-            List<Consultation> consultations = response.hits().hits().stream()
-                .map(hit -> {
-                    Consultation consultation = hit.source();
-                    if (consultation != null && hit.score() != null) {
-                        consultation.setScore(hit.score());
-                    }
-                    return consultation;
-                })
-                .collect(Collectors.toList());
-            
-            log.info("상담 가이드 벡터 검색 완료: 총 {}건 발견", consultations.size());
-            
-            return consultations;
-            
-        } catch (Exception e) {
-            log.error("상담 가이드 벡터 검색 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("상담 가이드 벡터 검색 실패", e);
-        }
+        return vectorSearch(queryText, topK, USE_YN_ACTIVE);
     }
-    
+
     /**
-     * 텍스트 검색 (키워드 기반)
+     * 검색 모드에 따른 검색 (사용 중인 가이드만)
+     * @param queryText 검색 텍스트
+     * @param topK 상위 k개 결과
+     * @param mode 검색 모드 (null이면 VECTOR)
+     * @return 검색된 상담 가이드 목록 (호출자별 복사본)
+     */
+    public List<Consultation> search(String queryText, int topK, SearchMode mode) {
+        return search(queryText, topK, mode, USE_YN_ACTIVE);
+    }
+
+    /**
+     * 텍스트 검색 (키워드 기반, 사용 중인 가이드만)
      * @param queryText 검색 텍스트
      * @param topK 상위 k개 결과
      * @return 검색된 상담 가이드 목록
      */
     public List<Consultation> textSearch(String queryText, int topK) {
-        try {
-            log.info("상담 가이드 텍스트 검색 시작: query={}, topK={}", queryText, topK);
-            
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                .index(INDEX_NAME)
-                .query(q -> q
-                    .multiMatch(m -> m
-                        .query(queryText)
-                        .fields("csasiName^3", "fullContent^1")
-                    )
-                )
-                .size(topK)
-            );
-            
-            SearchResponse<Consultation> response = elasticsearchClient.search(
-                searchRequest,
-                Consultation.class
-            );
-            
-            List<Consultation> consultations = response.hits().hits().stream()
-                .map(hit -> {
-                    Consultation consultation = hit.source();
-                    if (consultation != null && hit.score() != null) {
-                        consultation.setScore(hit.score());
-                    }
-                    return consultation;
-                })
-                .collect(Collectors.toList());
-            
-            log.info("상담 가이드 텍스트 검색 완료: 총 {}건 발견", consultations.size());
-            
-            return consultations;
-            
-        } catch (Exception e) {
-            log.error("상담 가이드 텍스트 검색 실패: {}", e.getMessage(), e);
-            throw new RuntimeException("상담 가이드 텍스트 검색 실패", e);
+        return textSearch(queryText, topK, USE_YN_ACTIVE);
+    }
+
+    /**
+     * use_yn 값 정규화 (null/빈 값 → null = 필터 없음)
+     */
+    @Override
+    protected String normalizeFilter(String useYn) {
+        return useYn != null && !useYn.isBlank() ? useYn.strip().toUpperCase() : null;
+    }
+
+    /**
+     * use_yn 필터 → filter 절 쿼리 목록 (kNN filter / bool filter 공용, 점수에 영향 없음)
+     */
+    @Override
+    protected List<Query> filterQueries(String useYn) {
+        List<Query> filters = new ArrayList<>();
+        String value = normalizeFilter(useYn);
+        if (value != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field(USE_YN_FIELD).value(value))));
         }
+        return filters;
     }
 }
-
@@ -0,0 +1,174 @@
+package com.example.elasticsearch.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 질의 임베딩 캐시
+ * 정규화된 텍스트 → float[] 벡터를 메모리 예산(max-bytes) 안에서 LRU 방식으로 보관
+ * 같은 검색어가 반복되면 임베딩 API 호출 없이 바로 벡터를 반환
+ */
+@Component
+public class EmbeddingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingCache.class);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    // 엔트리당 고정 오버헤드 추정치 (LinkedHashMap.Entry + CacheEntry + 배열/문자열 헤더)
+    private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+    @Value("${embedding.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${embedding.cache.max-bytes:33554432}")
+    private long maxBytes;
+
+    @Value("${embedding.cache.ttl-minutes:60}")
+    private long ttlMinutes;
+
+    // accessOrder=true → 조회 시 뒤로 이동, 맨 앞이 가장 오래 안 쓰인 엔트리
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long usedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * 캐시 키용 텍스트 정규화 (앞뒤 공백 제거, 연속 공백 축약, Unicode NFC)
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String nfc = Normalizer.normalize(text, Normalizer.Form.NFC);
+        return WHITESPACE.matcher(nfc.trim()).replaceAll(" ");
+    }
+
+    /**
+     * 캐시 조회
+     * @param normalizedText normalize()를 거친 텍스트
+     * @return 벡터 (없거나 만료되었으면 null)
+     */
+    public float[] get(String normalizedText) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(normalizedText);
+            if (entry == null) {
+                misses.increment();
+                return null;
+            }
+
+            if (entry.expiresAt < System.currentTimeMillis()) {
+                entries.remove(normalizedText);
+                usedBytes -= entry.bytes;
+                expirations.increment();
+                misses.increment();
+                return null;
+            }
+
+            hits.increment();
+            return entry.vector;
+        }
+    }
+
+    /**
+     * 캐시 저장 (메모리 예산 초과 시 가장 오래 안 쓰인 엔트리부터 제거)
+     * @param normalizedText normalize()를 거친 텍스트
+     * @param vector 벡터
+     */
+    public void put(String normalizedText, float[] vector) {
+        if (!enabled || vector == null) {
+            return;
+        }
+
+        long bytes = ENTRY_OVERHEAD_BYTES + 2L * normalizedText.length() + 4L * vector.length;
+        if (bytes > maxBytes) {
+            return;
+        }
+
+        long expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes);
+
+        synchronized (entries) {
+            CacheEntry previous = entries.put(normalizedText, new CacheEntry(vector, expiresAt, bytes));
+            if (previous != null) {
+                usedBytes -= previous.bytes;
+            }
+            usedBytes += bytes;
+
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (usedBytes > maxBytes && it.hasNext()) {
+                CacheEntry eldest = it.next();
+                it.remove();
+                usedBytes -= eldest.bytes;
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 캐시 전체 삭제
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            usedBytes = 0;
+        }
+        log.info("임베딩 캐시 초기화");
+    }
+
+    /**
+     * 캐시 통계 (hit/miss/eviction 카운터, 사용 메모리)
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        int size;
+        long bytes;
+        synchronized (entries) {
+            size = entries.size();
+            bytes = usedBytes;
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", size);
+        stats.put("usedBytes", bytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("expirations", expirations.sum());
+        return stats;
+    }
+
+    private static final class CacheEntry {
+        private final float[] vector;
+        private final long expiresAt;
+        private final long bytes;
+
+        CacheEntry(float[] vector, long expiresAt, long bytes) {
+            this.vector = vector;
+            this.expiresAt = expiresAt;
+            this.bytes = bytes;
+        }
+    }
+}
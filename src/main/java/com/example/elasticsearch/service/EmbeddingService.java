@@ -1,32 +1,347 @@
 package com.example.elasticsearch.service;
 
+import com.example.elasticsearch.dto.EmbeddingBatchResponse;
 import com.example.elasticsearch.dto.EmbeddingResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * 임베딩 API 연동 서비스
+ * 동시에 들어온 getVector 요청을 짧은 시간(max-wait-ms) 동안 모아
+ * Python /embed/batch 로 한 번에 전송하는 마이크로 배칭 지원
+ * 반복 검색어는 EmbeddingCache에서 바로 반환 (네트워크 호출 없음)
+ */
 @Service
 public class EmbeddingService {
-    
-    private static final String EMBEDDING_API_URL = "http://localhost:5001/embed";
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingService.class);
+
     private final RestTemplate restTemplate;
+    private final EmbeddingCache embeddingCache;
+    private final StageMetrics stageMetrics;
+
+    // 임베딩 API 주소 (/embed, /embed/batch 의 base URL)
+    @Value("${embedding.api.url:http://localhost:5001}")
+    private String embeddingApiUrl;
+
+    // 마이크로 배칭 설정
+    @Value("${embedding.batch.enabled:true}")
+    private boolean batchEnabled;
+
+    @Value("${embedding.batch.max-size:32}")
+    private int maxBatchSize;
+
+    @Value("${embedding.batch.max-wait-ms:5}")
+    private long maxWaitMs;
+
+    @Value("${embedding.batch.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    // 대기열 경유 요청의 최대 대기 시간 (배치 전송 지연/유실 시 호출자가 무한 대기하지 않도록)
+    @Value("${embedding.batch.wait-timeout-ms:10000}")
+    private long waitTimeoutMs;
 
-    public EmbeddingService() {
-        this.restTemplate = new RestTemplate();
+    // 배치 대기열 (수집 스레드가 꺼내서 묶음 단위로 전송)
+    private final BlockingQueue<PendingEmbedding> pendingQueue = new LinkedBlockingQueue<>();
+    private ExecutorService dispatchExecutor;
+    private Thread collectorThread;
+    private volatile boolean running;
+
+    public EmbeddingService(@Qualifier("embeddingRestTemplate") RestTemplate restTemplate,
+                            EmbeddingCache embeddingCache,
+                            StageMetrics stageMetrics) {
+        this.restTemplate = restTemplate;
+        this.embeddingCache = embeddingCache;
+        this.stageMetrics = stageMetrics;
+    }
+
+    @PostConstruct
+    void startBatching() {
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.dispatchExecutor = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), r -> {
+            Thread t = new Thread(r, "embedding-dispatch-" + threadSeq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        if (batchEnabled) {
+            this.running = true;
+            this.collectorThread = new Thread(this::collectLoop, "embedding-batch-collector");
+            this.collectorThread.setDaemon(true);
+            this.collectorThread.start();
+            log.info("임베딩 마이크로 배칭 활성화: maxBatchSize={}, maxWaitMs={}", maxBatchSize, maxWaitMs);
+        }
+    }
+
+    @PreDestroy
+    void stopBatching() {
+        // 먼저 종료 표시 → 이후 enqueue는 거부되거나 스스로 회수 (drain 이후 대기열에 남는 요청 없음)
+        running = false;
+        if (collectorThread != null) {
+            collectorThread.interrupt();
+        }
+
+        // 전송되지 못한 요청은 실패 처리 (호출자가 무한 대기하지 않도록)
+        List<PendingEmbedding> remaining = new ArrayList<>();
+        pendingQueue.drainTo(remaining);
+        remaining.forEach(p -> p.future.completeExceptionally(
+                new IllegalStateException("임베딩 서비스가 종료되었습니다")));
+
+        if (dispatchExecutor != null) {
+            dispatchExecutor.shutdown();
+        }
     }
 
     /**
      * 텍스트를 벡터로 변환
      * @param text 변환할 텍스트
-     * @return 벡터 (768차원)
+     * @return 벡터 (768차원, 캐시와 공유되므로 수정 금지)
      */
-    public List<Float> getVector(String text) {
+    public float[] getVector(String text) {
+        long startNanos = System.nanoTime();
+        String normalized = EmbeddingCache.normalize(text);
+        float[] cached = embeddingCache.get(normalized);
+        RequestTiming.put("embedCacheHit", cached != null);
+        if (cached != null) {
+            stageMetrics.record(StageMetrics.EMBEDDING, StageMetrics.NONE, "cache", true, System.nanoTime() - startNanos);
+            return cached;
+        }
+
+        return stageMetrics.time(StageMetrics.EMBEDDING, StageMetrics.NONE, "sidecar", () -> fetchVector(normalized));
+    }
+
+    /**
+     * 캐시 미스 텍스트 임베딩 (배칭 사용 시 대기열 경유)
+     */
+    private float[] fetchVector(String normalized) {
+        if (!batchEnabled) {
+            float[] vector = requestSingle(normalized);
+            embeddingCache.put(normalized, vector);
+            return vector;
+        }
+
+        CompletableFuture<float[]> future = enqueue(normalized);
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new RuntimeException("벡터 생성 대기 시간 초과 (" + waitTimeoutMs + "ms)", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("벡터 생성 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException("벡터 생성 중 오류 발생: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 텍스트를 벡터로 변환 (비동기)
+     * 동시에 들어온 요청과 묶여 한 번의 배치 호출로 처리되며, 호출자별로 개별 future를 돌려받음
+     * 처리 시간은 호출 시점의 요청(RequestTiming)과 rag.stage{stage=embedding}에 기록
+     * @param text 변환할 텍스트
+     * @return 벡터 future (wait-timeout-ms 초과 시 TimeoutException으로 완료)
+     */
+    public CompletableFuture<float[]> getVectorAsync(String text) {
+        long startNanos = System.nanoTime();
+        String normalized = EmbeddingCache.normalize(text);
+        float[] cached = embeddingCache.get(normalized);
+        RequestTiming.put("embedCacheHit", cached != null);
+        if (cached != null) {
+            stageMetrics.record(StageMetrics.EMBEDDING, StageMetrics.NONE, "cache", true, System.nanoTime() - startNanos);
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        return stageMetrics.timeAsync(StageMetrics.EMBEDDING, StageMetrics.NONE, "sidecar", () -> {
+            if (!batchEnabled) {
+                return CompletableFuture.supplyAsync(() -> {
+                    float[] vector = requestSingle(normalized);
+                    embeddingCache.put(normalized, vector);
+                    return vector;
+                }, dispatchExecutor);
+            }
+            return enqueue(normalized).orTimeout(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * 배치 대기열에 추가 (캐시 미스인 정규화 텍스트)
+     */
+    private CompletableFuture<float[]> enqueue(String text) {
+        PendingEmbedding pending = new PendingEmbedding(text);
+        if (!running) {
+            pending.future.completeExceptionally(new IllegalStateException("임베딩 서비스가 종료되었습니다"));
+            return pending.future;
+        }
+
+        pendingQueue.add(pending);
+
+        // 추가 직전에 종료되어 drain 이후에 들어간 요청은 직접 회수해 실패 처리
+        // (running=false는 drain 전에 기록되므로, drain에 포함되지 않은 요청은 여기서 반드시 종료를 관측)
+        if (!running && pendingQueue.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("임베딩 서비스가 종료되었습니다"));
+        }
+        return pending.future;
+    }
+
+    /**
+     * 여러 텍스트를 한 번에 벡터로 변환 (대량 처리용, 대기열을 거치지 않음)
+     * @param texts 변환할 텍스트 목록
+     * @return 입력 순서와 같은 순서의 벡터 목록
+     */
+    public List<float[]> getVectors(List<String> texts) {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        int chunkSize = Math.max(1, maxBatchSize);
+
+        for (int from = 0; from < texts.size(); from += chunkSize) {
+            List<String> chunk = texts.subList(from, Math.min(from + chunkSize, texts.size()));
+            vectors.addAll(requestBatch(chunk));
+        }
+
+        return vectors;
+    }
+
+    /**
+     * 여러 검색어를 한 번에 벡터로 변환 (배치 검색용)
+     * 캐시에 있는 검색어는 재사용하고, 나머지는 중복 제거 후 한 번의 배치 호출로 요청
+     * @param texts 검색어 목록
+     * @return 입력 순서와 같은 순서의 벡터 목록 (캐시와 공유되므로 수정 금지)
+     */
+    public List<float[]> getQueryVectors(List<String> texts) {
+        long startNanos = System.nanoTime();
+        List<String> normalized = texts.stream().map(EmbeddingCache::normalize).toList();
+
+        Map<String, float[]> vectorsByText = new LinkedHashMap<>();
+        for (String text : normalized) {
+            if (!vectorsByText.containsKey(text)) {
+                vectorsByText.put(text, embeddingCache.get(text));
+            }
+        }
+
+        List<String> misses = vectorsByText.entrySet().stream()
+                .filter(entry -> entry.getValue() == null)
+                .map(Map.Entry::getKey)
+                .toList();
+        RequestTiming.put("embedCacheMisses", misses.size());
+
+        if (misses.isEmpty()) {
+            stageMetrics.record(StageMetrics.EMBEDDING, StageMetrics.NONE, "cache", true, System.nanoTime() - startNanos);
+        } else {
+            List<float[]> fetched = stageMetrics.time(StageMetrics.EMBEDDING, StageMetrics.NONE, "sidecar",
+                    () -> getVectors(misses));
+            for (int i = 0; i < misses.size(); i++) {
+                embeddingCache.put(misses.get(i), fetched.get(i));
+                vectorsByText.put(misses.get(i), fetched.get(i));
+            }
+        }
+
+        return normalized.stream().map(vectorsByText::get).toList();
+    }
+
+    /**
+     * 대기열 수집 루프
+     * 첫 요청이 도착하면 max-wait-ms 동안 또는 max-size에 도달할 때까지 모아서 전송
+     */
+    private void collectLoop() {
+        while (running) {
+            try {
+                PendingEmbedding first = pendingQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<PendingEmbedding> batch = new ArrayList<>(maxBatchSize);
+                batch.add(first);
+
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    PendingEmbedding next = pendingQueue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    dispatchExecutor.execute(() -> dispatch(batch));
+                } catch (RejectedExecutionException e) {
+                    batch.forEach(p -> p.future.completeExceptionally(e));
+                }
+
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+    }
+
+    /**
+     * 모아진 요청을 한 번에 전송하고 각 호출자의 future를 완료
+     */
+    private void dispatch(List<PendingEmbedding> batch) {
+        // 같은 텍스트는 한 번만 요청
+        Map<String, List<CompletableFuture<float[]>>> futuresByText = new LinkedHashMap<>();
+        for (PendingEmbedding pending : batch) {
+            futuresByText.computeIfAbsent(pending.text, k -> new ArrayList<>()).add(pending.future);
+        }
+
+        List<String> texts = new ArrayList<>(futuresByText.keySet());
+
+        try {
+            List<float[]> vectors = texts.size() == 1
+                    ? List.of(requestSingle(texts.get(0)))
+                    : requestBatch(texts);
+
+            log.debug("임베딩 배치 전송 완료: 요청 {}건, 고유 텍스트 {}건", batch.size(), texts.size());
+
+            int i = 0;
+            for (Map.Entry<String, List<CompletableFuture<float[]>>> entry : futuresByText.entrySet()) {
+                float[] vector = vectors.get(i++);
+                embeddingCache.put(entry.getKey(), vector);
+                entry.getValue().forEach(f -> f.complete(vector));
+            }
+
+        } catch (Exception e) {
+            batch.forEach(p -> p.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * 단건 임베딩 API 호출 (/embed)
+     */
+    private float[] requestSingle(String text) {
         try {
             // 요청 생성
             HttpHeaders headers = new HttpHeaders();
@@ -39,7 +354,7 @@ public class EmbeddingService {
 
             // Python API 호출
             EmbeddingResponse response = restTemplate.postForObject(
-                    EMBEDDING_API_URL,
+                    embeddingApiUrl + "/embed",
                     request,
                     EmbeddingResponse.class
             );
@@ -49,10 +364,59 @@ public class EmbeddingService {
             }
 
             return response.getVector();
-            
+
         } catch (Exception e) {
             throw new RuntimeException("벡터 생성 중 오류 발생: " + e.getMessage(), e);
         }
     }
-}
 
+    /**
+     * 배치 임베딩 API 호출 (/embed/batch)
+     */
+    private List<float[]> requestBatch(List<String> texts) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+
+            Map<String, List<String>> requestBody = new HashMap<>();
+            requestBody.put("texts", texts);
+
+            HttpEntity<Map<String, List<String>>> request = new HttpEntity<>(requestBody, headers);
+
+            EmbeddingBatchResponse response = restTemplate.postForObject(
+                    embeddingApiUrl + "/embed/batch",
+                    request,
+                    EmbeddingBatchResponse.class
+            );
+
+            if (response == null || response.getVectors() == null
+                    || response.getVectors().size() != texts.size()) {
+                throw new RuntimeException("배치 벡터 생성 실패");
+            }
+
+            return response.getVectors();
+
+        } catch (Exception e) {
+            throw new RuntimeException("배치 벡터 생성 중 오류 발생: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 임베딩 캐시 통계
+     */
+    public Map<String, Object> getCacheStats() {
+        return embeddingCache.getStats();
+    }
+
+    /**
+     * 배치 대기 중인 요청 (텍스트 + 호출자 future)
+     */
+    private static class PendingEmbedding {
+        private final String text;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+
+        PendingEmbedding(String text) {
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.elasticsearch.service;
+
+/**
+ * kNN num_candidates 결정 정책 (인덱스별)
+ * num_candidates = ceil(k × ratio) 를 [max(floor, k), ceiling] 범위로 제한
+ * - k가 작으면 floor로 최소 후보 수를 보장 (recall 유지), k가 크면 ratio로 함께 늘림, ceiling으로 샤드당 HNSW 탐색 비용 상한
+ * - 값은 embedding/knn_recall_benchmark.py 측정 결과 (목표 recall@K를 만족하는 최소 후보 수)로 갱신 (현재 기본값은 미측정 잠정값)
+ * - Elasticsearch 제약: k ≤ num_candidates ≤ 10000 → k는 1 ~ 10000만 허용 (API에서 먼저 400으로 거름)
+ */
+final class KnnCandidatePolicy {
+
+    static final int ES_MAX_CANDIDATES = 10000;
+
+    private final double ratio;
+    private final int floor;
+    private final int ceiling;
+
+    KnnCandidatePolicy(double ratio, int floor, int ceiling) {
+        if (ratio < 1.0 || floor < 1 || ceiling < floor) {
+            throw new IllegalArgumentException(String.format(
+                    "잘못된 kNN 후보 수 설정: ratio=%s, floor=%d, ceiling=%d (ratio >= 1, 1 <= floor <= ceiling)",
+                    ratio, floor, ceiling));
+        }
+        this.ratio = ratio;
+        this.floor = floor;
+        this.ceiling = Math.min(ceiling, ES_MAX_CANDIDATES);
+    }
+
+    /**
+     * @param k 반환할 결과 수 (1 ~ 10000)
+     * @return 샤드별 후보 수 (항상 k 이상)
+     * @throws IllegalArgumentException k가 범위를 벗어나면 (ES가 거부하는 요청을 보내지 않음)
+     */
+    int numCandidates(int k) {
+        if (k < 1 || k > ES_MAX_CANDIDATES) {
+            throw new IllegalArgumentException("k는 1 ~ " + ES_MAX_CANDIDATES + " 사이여야 합니다: " + k);
+        }
+        long byRatio = (long) Math.ceil(k * ratio);
+        long candidates = Math.min(Math.max(byRatio, floor), ceiling);
+        return (int) Math.min(Math.max(candidates, k), ES_MAX_CANDIDATES);
+    }
+
+    @Override
+    public String toString() {
+        return "KnnCandidatePolicy{ratio=" + ratio + ", floor=" + floor + ", ceiling=" + ceiling + '}';
+    }
+}
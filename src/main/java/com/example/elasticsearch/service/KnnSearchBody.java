@@ -0,0 +1,122 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import co.elastic.clients.json.jackson.JacksonJsonpGenerator;
+import jakarta.json.stream.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * kNN 검색 요청 본문 (_search / _msearch 한 건)
+ * Java Client의 KnnQuery.queryVector는 List&lt;Float&gt;라 직렬화 시 원소마다 Float 박싱 + double 변환(0.1f → 0.10000000149011612)이 발생
+ * → float[]를 그대로 보관하고 Jackson writeNumber(float)로 기록 (박싱 없음, 숫자 표기도 짧아짐)
+ * 필터 / _source / 하이브리드 BM25 쿼리는 Java Client 타입을 그대로 직렬화
+ */
+final class KnnSearchBody implements JsonpSerializable {
+
+    private final String field;
+    private final float[] queryVector;
+    private final int k;
+    private final int numCandidates;
+    private final List<Query> filters;
+    private final SourceConfig source;
+
+    // 하이브리드(linear) 검색: BM25 쿼리 + kNN 가중치 (null이면 kNN만)
+    private final Query query;
+    private final Float knnBoost;
+
+    private KnnSearchBody(String field, float[] queryVector, int k, int numCandidates, List<Query> filters,
+                          SourceConfig source, Query query, Float knnBoost) {
+        this.field = field;
+        this.queryVector = queryVector;
+        this.k = k;
+        this.numCandidates = numCandidates;
+        this.filters = filters;
+        this.source = source;
+        this.query = query;
+        this.knnBoost = knnBoost;
+    }
+
+    /**
+     * kNN 검색 (size = k)
+     * @param filters kNN filter 절 (HNSW 탐색 중 적용, 비어 있으면 생략)
+     */
+    static KnnSearchBody knn(String field, float[] queryVector, int k, int numCandidates,
+                             List<Query> filters, SourceConfig source) {
+        return new KnnSearchBody(field, queryVector, k, numCandidates, List.copyOf(filters), source, null, null);
+    }
+
+    /**
+     * BM25 쿼리와 함께 실행 (점수 = query 점수 + knnBoost × 유사도)
+     */
+    KnnSearchBody withQuery(Query query, float knnBoost) {
+        return new KnnSearchBody(field, queryVector, k, numCandidates, filters, source, query, knnBoost);
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, JsonpMapper mapper) {
+        generator.writeStartObject();
+
+        if (query != null) {
+            generator.writeKey("query");
+            query.serialize(generator, mapper);
+        }
+
+        generator.writeKey("knn");
+        generator.writeStartObject();
+        generator.write("field", field);
+        generator.writeKey("query_vector");
+        writeVector(generator, queryVector);
+        generator.write("k", k);
+        generator.write("num_candidates", numCandidates);
+        if (!filters.isEmpty()) {
+            generator.writeKey("filter");
+            generator.writeStartArray();
+            for (Query filter : filters) {
+                filter.serialize(generator, mapper);
+            }
+            generator.writeEnd();
+        }
+        if (knnBoost != null) {
+            generator.write("boost", knnBoost);
+        }
+        generator.writeEnd();
+
+        // 기본 size(10)보다 큰 k도 모두 반환
+        generator.write("size", k);
+
+        if (source != null) {
+            generator.writeKey("_source");
+            source.serialize(generator, mapper);
+        }
+
+        generator.writeEnd();
+    }
+
+    /**
+     * float 배열 직렬화 (Jackson 생성기면 float 그대로, 그 외에는 double로 기록)
+     */
+    static void writeVector(JsonGenerator generator, float[] vector) {
+        generator.writeStartArray();
+        if (generator instanceof JacksonJsonpGenerator jacksonGenerator) {
+            com.fasterxml.jackson.core.JsonGenerator out = jacksonGenerator.jacksonGenerator();
+            try {
+                for (float value : vector) {
+                    out.writeNumber(value);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            for (float value : vector) {
+                generator.write(value);
+            }
+        }
+        generator.writeEnd();
+    }
+}
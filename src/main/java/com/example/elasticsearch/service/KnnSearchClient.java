@@ -0,0 +1,145 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import co.elastic.clients.transport.ElasticsearchTransport;
+import jakarta.json.stream.JsonGenerator;
+import jakarta.json.stream.JsonParser;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.elasticsearch.client.Cancellable;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseListener;
+import org.elasticsearch.client.RestClient;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * kNN 검색 전송 (KnnSearchBody → low-level RestClient)
+ * 요청 본문은 KnnSearchBody가 직접 직렬화하고, 응답은 Java Client 역직렬화기(SearchResponse / MsearchResponse)로 변환
+ * ElasticsearchClient와 같은 RestClient(노드 선택 / 압축 / rag.es.* 메트릭)와 JsonpMapper 사용
+ */
+@Component
+class KnnSearchClient {
+
+    private static final ContentType NDJSON = ContentType.create("application/x-ndjson");
+
+    private final RestClient restClient;
+    private final JsonpMapper mapper;
+
+    KnnSearchClient(RestClient elasticsearchRestClient, ElasticsearchTransport elasticsearchTransport) {
+        this.restClient = elasticsearchRestClient;
+        this.mapper = elasticsearchTransport.jsonpMapper();
+    }
+
+    /**
+     * 단건 검색 (_search)
+     */
+    <T> SearchResponse<T> search(String index, JsonpSerializable body, Class<T> documentClass) throws IOException {
+        Response response = restClient.performRequest(searchRequest(index, body));
+        return parse(response, SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(documentClass)));
+    }
+
+    /**
+     * 단건 검색 (비동기)
+     * 응답 역직렬화와 future 완료(이후 thenApply 등 후속 단계)는 executor에서 실행 (HTTP I/O 스레드 점유 없음)
+     * 반환된 future를 취소하면 진행 중인 HTTP 요청도 취소
+     * @param executor 응답 처리 스레드 풀
+     */
+    <T> CompletableFuture<SearchResponse<T>> searchAsync(String index, JsonpSerializable body, Class<T> documentClass,
+                                                         Executor executor) {
+        CompletableFuture<SearchResponse<T>> future = new CompletableFuture<>();
+        Request request;
+        try {
+            request = searchRequest(index, body);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        Cancellable cancellable = restClient.performRequestAsync(request, new ResponseListener() {
+            @Override
+            public void onSuccess(Response response) {
+                try {
+                    executor.execute(() -> {
+                        try {
+                            future.complete(parse(response,
+                                    SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(documentClass))));
+                        } catch (Exception e) {
+                            future.completeExceptionally(e);
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception exception) {
+                future.completeExceptionally(exception);
+            }
+        });
+
+        future.whenComplete((response, error) -> {
+            if (future.isCancelled()) {
+                cancellable.cancel();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 여러 검색을 한 번에 실행 (_msearch, 하위 검색 결과는 bodies와 같은 순서)
+     * @param bodies KnnSearchBody 또는 Java Client 요청 본문 (예: index 없이 만든 SearchRequest)
+     */
+    <T> MsearchResponse<T> msearch(String index, List<? extends JsonpSerializable> bodies,
+                                   Class<T> documentClass) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (JsonpSerializable body : bodies) {
+            // 헤더는 비워 둠 (인덱스는 경로로 지정)
+            out.write('{');
+            out.write('}');
+            out.write('\n');
+            write(body, out);
+            out.write('\n');
+        }
+
+        Request request = new Request("POST", "/" + index + "/_msearch");
+        request.setEntity(new ByteArrayEntity(out.toByteArray(), NDJSON));
+
+        Response response = restClient.performRequest(request);
+        return parse(response, MsearchResponse.createMsearchResponseDeserializer(JsonpDeserializer.of(documentClass)));
+    }
+
+    private Request searchRequest(String index, JsonpSerializable body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(body, out);
+
+        Request request = new Request("POST", "/" + index + "/_search");
+        request.setEntity(new ByteArrayEntity(out.toByteArray(), ContentType.APPLICATION_JSON));
+        return request;
+    }
+
+    private void write(JsonpSerializable body, ByteArrayOutputStream out) {
+        JsonGenerator generator = mapper.jsonProvider().createGenerator(out);
+        body.serialize(generator, mapper);
+        generator.close();
+    }
+
+    private <R> R parse(Response response, JsonpDeserializer<R> deserializer) throws IOException {
+        try (InputStream content = response.getEntity().getContent();
+             JsonParser parser = mapper.jsonProvider().createParser(content)) {
+            return deserializer.deserialize(parser, mapper);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.elasticsearch.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * LLM 응답 캐시
+ * 키: SHA-256(시스템 프롬프트 + 사용자 프롬프트 + 모델 옵션)
+ * 같은 질문 + 같은 검색 결과(가이드/주문 정보)면 Bedrock 호출 없이 이전 응답 재사용
+ * 엔트리는 참조한 csasi_id / 주문번호로 태깅되어, 재색인·주문 상태 변경 시 무효화
+ */
+@Component
+public class LlmResponseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmResponseCache.class);
+
+    @Value("${llm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${llm.cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    // 캐시 키에 포함할 모델 옵션 (모델/파라미터가 바뀌면 다른 키)
+    @Value("${spring.ai.bedrock.converse.chat.options.model:}")
+    private String model;
+
+    @Value("${spring.ai.bedrock.converse.chat.options.temperature:}")
+    private String temperature;
+
+    @Value("${spring.ai.bedrock.converse.chat.options.max-tokens:}")
+    private String maxTokens;
+
+    // accessOrder=true → 가장 오래 안 쓰인 엔트리가 맨 앞
+    private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * 프롬프트 지문 (메시지 타입/내용 + 모델 옵션의 SHA-256)
+     */
+    public String fingerprint(Prompt prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Message message : prompt.getInstructions()) {
+                digest.update(message.getMessageType().name().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(message.getContent().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            digest.update(String.join("|", model, temperature, maxTokens).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 미지원", e);
+        }
+    }
+
+    /**
+     * 프롬프트 전체 글자 수 (시스템 + 사용자 메시지)
+     */
+    static int promptChars(Prompt prompt) {
+        int chars = 0;
+        for (Message message : prompt.getInstructions()) {
+            chars += message.getContent() != null ? message.getContent().length() : 0;
+        }
+        return chars;
+    }
+
+    /**
+     * 캐시 조회
+     * @return 캐시된 응답 (없거나 만료되었으면 null)
+     */
+    public String get(String key) {
+        if (!enabled) {
+            return null;
+        }
+
+        synchronized (entries) {
+            CacheEntry entry = entries.get(key);
+            if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+                if (entry != null) {
+                    entries.remove(key);
+                }
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.answer;
+        }
+    }
+
+    /**
+     * 캐시 저장
+     * @param key fingerprint() 결과
+     * @param answer LLM 응답 (정상 응답만 저장)
+     * @param csasiIds 프롬프트에 포함된 상담 가이드 ID
+     * @param ordNos 프롬프트에 포함된 주문번호
+     */
+    public void put(String key, String answer, Set<String> csasiIds, Set<String> ordNos) {
+        if (!enabled || answer == null) {
+            return;
+        }
+
+        long expiresAt = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(ttlMinutes);
+
+        synchronized (entries) {
+            entries.put(key, new CacheEntry(answer, expiresAt, Set.copyOf(csasiIds), Set.copyOf(ordNos)));
+
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (entries.size() > maxEntries && it.hasNext()) {
+                it.next();
+                it.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * 상담 가이드 재색인 시 해당 가이드를 참조한 응답 무효화
+     * @return 삭제된 엔트리 수
+     */
+    public int invalidateCsasi(String csasiId) {
+        int removed = removeIf(entry -> entry.csasiIds.contains(csasiId));
+        log.info("LLM 응답 캐시 무효화 (가이드): csasiId={}, removed={}", csasiId, removed);
+        return removed;
+    }
+
+    /**
+     * 주문 상태 변경 시 해당 주문을 참조한 응답 무효화
+     * @return 삭제된 엔트리 수
+     */
+    public int invalidateOrder(String ordNo) {
+        int removed = removeIf(entry -> entry.ordNos.contains(ordNo));
+        log.info("LLM 응답 캐시 무효화 (주문): ordNo={}, removed={}", ordNo, removed);
+        return removed;
+    }
+
+    /**
+     * 캐시 전체 삭제
+     */
+    public void clear() {
+        synchronized (entries) {
+            invalidations.add(entries.size());
+            entries.clear();
+        }
+        log.info("LLM 응답 캐시 초기화");
+    }
+
+    /**
+     * 캐시 통계
+     */
+    public Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", size);
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private int removeIf(Predicate<CacheEntry> predicate) {
+        int removed = 0;
+        synchronized (entries) {
+            Iterator<CacheEntry> it = entries.values().iterator();
+            while (it.hasNext()) {
+                if (predicate.test(it.next())) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        invalidations.add(removed);
+        return removed;
+    }
+
+    private static final class CacheEntry {
+        private final String answer;
+        private final long expiresAt;
+        private final Set<String> csasiIds;
+        private final Set<String> ordNos;
+
+        CacheEntry(String answer, long expiresAt, Set<String> csasiIds, Set<String> ordNos) {
+            this.answer = answer;
+            this.expiresAt = expiresAt;
+            this.csasiIds = csasiIds;
+            this.ordNos = ordNos;
+        }
+    }
+}
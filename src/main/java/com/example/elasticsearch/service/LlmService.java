@@ -1,8 +1,11 @@
 package com.example.elasticsearch.service;
 
 import com.example.elasticsearch.entity.Product;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * LLM (Large Language Model) 서비스 인터페이스
@@ -19,5 +22,48 @@ public interface LlmService {
      * @return AI 응답
      */
     String generateResponse(String question, String context, List<Product> products);
+    
+    /**
+     * 사용자 질문에 대한 AI 응답 생성 (응답 캐시 우회 여부 지정)
+     * 응답 캐시를 지원하지 않는 구현체는 bypassCache를 무시함
+     * 
+     * @param question 사용자 질문
+     * @param context RAG 검색 결과 컨텍스트
+     * @param products 검색된 상품 목록
+     * @param bypassCache true면 캐시를 조회하지 않고 새로 생성
+     * @return AI 응답
+     */
+    default String generateResponse(String question, String context, List<Product> products, boolean bypassCache) {
+        return generateResponse(question, context, products);
+    }
+    
+    /**
+     * 사용자 질문에 대한 AI 응답 생성 (비동기)
+     * 기본 구현은 executor 스레드에서 동기 호출, 비동기 API가 있는 구현체는 응답 대기 중 스레드를 점유하지 않도록 재정의
+     * 
+     * @param question 사용자 질문
+     * @param context RAG 검색 결과 컨텍스트
+     * @param products 검색된 상품 목록
+     * @param bypassCache true면 캐시를 조회하지 않고 새로 생성
+     * @param executor 동기 호출을 실행할 스레드 풀
+     * @return AI 응답
+     */
+    default CompletableFuture<String> generateResponseAsync(String question, String context, List<Product> products,
+                                                            boolean bypassCache, Executor executor) {
+        return CompletableFuture.supplyAsync(() -> generateResponse(question, context, products, bypassCache), executor);
+    }
+    
+    /**
+     * 사용자 질문에 대한 AI 응답을 토큰 단위로 스트리밍
+     * 스트리밍을 지원하지 않는 구현체는 전체 응답을 한 번에 내보냄
+     * 
+     * @param question 사용자 질문
+     * @param context RAG 검색 결과 컨텍스트
+     * @param products 검색된 상품 목록
+     * @return AI 응답 토큰 스트림
+     */
+    default Flux<String> streamResponse(String question, String context, List<Product> products) {
+        return Flux.defer(() -> Flux.just(generateResponse(question, context, products)));
+    }
 }
 
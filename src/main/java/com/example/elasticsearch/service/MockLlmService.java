@@ -17,16 +17,24 @@ import java.util.List;
 public class MockLlmService implements LlmService {
     private static final Logger logger = LoggerFactory.getLogger(MockLlmService.class);
     
+    private final StageMetrics stageMetrics;
+    
+    public MockLlmService(StageMetrics stageMetrics) {
+        this.stageMetrics = stageMetrics;
+    }
+    
     @Override
     public String generateResponse(String question, String context, List<Product> products) {
         logger.info("🎭 Mock LLM 응답 생성 중...");
         
-        // 간단한 규칙 기반 응답
-        if (products == null || products.isEmpty()) {
-            return generateNoResultResponse(question);
-        }
-        
-        return generateProductResponse(question, products);
+        return stageMetrics.time(StageMetrics.LLM, StageMetrics.NONE, "mock", () -> {
+            // 간단한 규칙 기반 응답
+            if (products == null || products.isEmpty()) {
+                return generateNoResultResponse(question);
+            }
+            
+            return generateProductResponse(question, products);
+        });
     }
     
     /**
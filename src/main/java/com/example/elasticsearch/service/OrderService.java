@@ -3,11 +3,18 @@ package com.example.elasticsearch.service;
 import com.example.elasticsearch.dto.OrderInfo;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * Oracle DB 주문 정보 조회 서비스
@@ -18,148 +25,171 @@ import java.util.Map;
 public class OrderService {
 
     private final JdbcTemplate jdbcTemplate;
+    private final StageMetrics stageMetrics;
+    private final CommonCodeService commonCodeService;
+    private final OrderSnapshotCache orderSnapshotCache;
 
-    // 주문상태 코드 매핑 (OC21)
-    private static final Map<String, String> ORDER_STATUS_MAP = new HashMap<>() {{
-        put("110", "입금대기");
-        put("120", "주문완료");
-        put("130", "배송지시");
-        put("140", "피킹완료");
-        put("145", "입고지연");
-        put("146", "결품요청");
-        put("150", "패킹완료");
-        put("160", "출하완료");
-        put("170", "배송완료");
-        put("180", "주문취소");
-        // 반품상태
-        put("210", "반품요청");
-        put("220", "반품접수");
-        put("230", "수거지시");
-        put("235", "수거지시확인");
-        put("240", "회수확인");
-        put("246", "판정대기");
-        put("248", "판정완료");
-        put("250", "입고완료");
-        put("260", "환불대기");
-        put("270", "환불완료");
-        put("299", "반품철회");
-        // 교환상태
-        put("310", "교환요청");
-        put("320", "교환접수");
-        put("330", "수거지시");
-        put("335", "수거지시확인");
-        put("336", "판정대기");
-        put("338", "판정완료");
-        put("340", "입고완료");
-        put("350", "출하지시");
-        put("360", "피킹완료");
-        put("370", "패킹완료");
-        put("380", "출하완료");
-        put("390", "배송완료");
-        put("399", "교환철회");
-    }};
-
-    // 배송방법 코드 매핑 (PO21)
-    private static final Map<String, String> SHIPPING_METHOD_MAP = new HashMap<>() {{
-        put("10", "자사배송");
-        put("20", "택배배송");
-        put("30", "매장방문");
-        put("40", "등기");
-        put("50", "미배송");
-        put("60", "미발송");
-        put("70", "퀵/당일배송");
-        put("80", "글로벌배송");
-        put("90", "특수배송");
-    }};
+    // 주문 상품 일괄 조회 시 JDBC fetch size
+    @Value("${order.query.fetch-size:100}")
+    private int fetchSize;
+
+    // IN 목록 최대 크기 (Oracle IN 절 제한 1000 이하)
+    @Value("${order.query.max-orders:100}")
+    private int maxOrders;
+
+    // 쿼리 타임아웃 (초) - 호출 측 타임아웃(orTimeout)은 JDBC 실행을 취소하지 못하므로 드라이버에서 중단
+    @Value("${order.query.timeout-seconds:1}")
+    private int queryTimeoutSeconds;
 
     /**
      * 주문번호 + 상품순번으로 주문 정보 조회
      */
     public OrderInfo getOrderInfo(String ordNo, Integer ordItemSeq) {
-        log.info("🔍 주문 정보 조회: ordNo={}, ordItemSeq={}", ordNo, ordItemSeq);
+        if (ordNo == null) {
+            return null;
+        }
+        List<OrderInfo> items = getOrderItems(List.of(ordNo), ordItemSeq != null ? List.of(ordItemSeq) : List.of());
+        return items.isEmpty() ? null : items.get(0);
+    }
 
+    /**
+     * 주문 상품 일괄 조회 (한 번의 쿼리)
+     * @param ordNos 주문번호 목록
+     * @param ordItemSeqs 상품순번 목록 (null 또는 비어 있으면 주문의 전체 상품)
+     * @return 주문번호, 상품순번 순으로 정렬된 주문 상품 (조회 실패 시 빈 목록)
+     */
+    public List<OrderInfo> getOrderItems(Collection<String> ordNos, Collection<Integer> ordItemSeqs) {
+        List<String> orders = ordNos == null ? List.of() : ordNos.stream()
+                .filter(ordNo -> ordNo != null && !ordNo.isEmpty())
+                .distinct()
+                .toList();
+        List<Integer> seqs = ordItemSeqs == null ? List.of() : ordItemSeqs.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+        if (orders.size() > maxOrders || seqs.size() > maxOrders) {
+            throw new IllegalArgumentException("한 번에 조회할 수 있는 주문/상품순번은 최대 " + maxOrders + "개입니다");
+        }
+
+        log.info("🔍 주문 정보 조회: ordNos={}, ordItemSeqs={}", orders, seqs.isEmpty() ? "전체" : seqs);
+
+        // 클레임 사유명은 같은 쿼리에서 OR07 공통코드와 조인 (주문당 추가 조회 없음)
         String sql = """
             SELECT 
-                ORD_NO,
-                ORD_ITEM_SEQ,
-                ORD_ITEM_STAT_CD,
-                ITEM_ID,
-                ITEM_NM,
-                UITEM_ID,
-                UITEM_NM,
-                ORD_QTY,
-                CNCL_QTY,
-                RET_QTY,
-                ORD_AMT,
-                DC_AMT,
-                RLORD_AMT,
-                SHPP_MTHD_CD,
-                SHPP_RSVT_DT,
-                SHPP_DIRC_EXPC_DT,
-                CLM_RSN_CD,
-                CLM_RSN_CNTT,
-                TO_CHAR(ORD_RCP_DTS, 'YYYY-MM-DD HH24:MI:SS') AS ORD_RCP_DTS,
-                TO_CHAR(ORD_ITEM_STAT_CHNG_DTS, 'YYYY-MM-DD HH24:MI:SS') AS ORD_ITEM_STAT_CHNG_DTS
-            FROM SSG.ORD_ITEM
-            WHERE ORD_NO = ?
-              AND ORD_ITEM_SEQ = ?
-            """;
+                OI.ORD_NO,
+                OI.ORD_ITEM_SEQ,
+                OI.ORD_ITEM_STAT_CD,
+                OI.ITEM_ID,
+                OI.ITEM_NM,
+                OI.UITEM_ID,
+                OI.UITEM_NM,
+                OI.ORD_QTY,
+                OI.CNCL_QTY,
+                OI.RET_QTY,
+                OI.ORD_AMT,
+                OI.DC_AMT,
+                OI.RLORD_AMT,
+                OI.SHPP_MTHD_CD,
+                OI.SHPP_RSVT_DT,
+                OI.SHPP_DIRC_EXPC_DT,
+                OI.CLM_RSN_CD,
+                CD.COMM_CD_NM AS CLM_RSN_NM,
+                OI.CLM_RSN_CNTT,
+                TO_CHAR(OI.ORD_RCP_DTS, 'YYYY-MM-DD HH24:MI:SS') AS ORD_RCP_DTS,
+                TO_CHAR(OI.ORD_ITEM_STAT_CHNG_DTS, 'YYYY-MM-DD HH24:MI:SS') AS ORD_ITEM_STAT_CHNG_DTS
+            FROM SSG.ORD_ITEM OI
+            LEFT JOIN SSG.COMM_CD_DTLC CD
+              ON CD.COMM_CD_GRP_NO = 'OR07'
+             AND CD.COMM_CD_NO = OI.CLM_RSN_CD
+            WHERE OI.ORD_NO IN (%s)
+            %s
+            ORDER BY OI.ORD_NO, OI.ORD_ITEM_SEQ
+            """.formatted(
+                placeholders(orders.size()),
+                seqs.isEmpty() ? "" : "AND OI.ORD_ITEM_SEQ IN (" + placeholders(seqs.size()) + ")");
 
         try {
-            return jdbcTemplate.queryForObject(sql, (rs, rowNum) -> {
-                String statCd = rs.getString("ORD_ITEM_STAT_CD");
-                String shppCd = rs.getString("SHPP_MTHD_CD");
-                String clmCd = rs.getString("CLM_RSN_CD");
-
-                return OrderInfo.builder()
-                        .ordNo(rs.getString("ORD_NO"))
-                        .ordItemSeq(rs.getInt("ORD_ITEM_SEQ"))
-                        .ordItemStatCd(statCd)
-                        .ordItemStatNm(ORDER_STATUS_MAP.getOrDefault(statCd, statCd))
-                        .itemId(rs.getString("ITEM_ID"))
-                        .itemNm(rs.getString("ITEM_NM"))
-                        .uitemId(rs.getString("UITEM_ID"))
-                        .uitemNm(rs.getString("UITEM_NM"))
-                        .ordQty(rs.getInt("ORD_QTY"))
-                        .cnclQty(rs.getInt("CNCL_QTY"))
-                        .retQty(rs.getInt("RET_QTY"))
-                        .ordAmt(rs.getLong("ORD_AMT"))
-                        .dcAmt(rs.getLong("DC_AMT"))
-                        .rlordAmt(rs.getLong("RLORD_AMT"))
-                        .shppMthdCd(shppCd)
-                        .shppMthdNm(SHIPPING_METHOD_MAP.getOrDefault(shppCd, shppCd))
-                        .shppRsvtDt(rs.getString("SHPP_RSVT_DT"))
-                        .shppDircExpcDt(rs.getString("SHPP_DIRC_EXPC_DT"))
-                        .clmRsnCd(clmCd)
-                        .clmRsnNm(getClaimReasonName(clmCd))
-                        .clmRsnCntt(rs.getString("CLM_RSN_CNTT"))
-                        .ordRcpDts(rs.getString("ORD_RCP_DTS"))
-                        .ordItemStatChngDts(rs.getString("ORD_ITEM_STAT_CHNG_DTS"))
-                        .build();
-            }, ordNo, ordItemSeq);
+            return stageMetrics.timeChecked(StageMetrics.ORDER, "ORD_ITEM", "oracle",
+                    () -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                // 다건 주문도 한두 번의 네트워크 왕복으로 가져오도록 fetch size 지정 (Oracle 기본값 10)
+                ps.setFetchSize(fetchSize);
+                ps.setQueryTimeout(queryTimeoutSeconds);
+                int index = 1;
+                for (String ordNo : orders) {
+                    ps.setString(index++, ordNo);
+                }
+                for (Integer seq : seqs) {
+                    ps.setInt(index++, seq);
+                }
+                return ps;
+            }, (rs, rowNum) -> mapOrderItem(rs)));
 
         } catch (Exception e) {
-            log.warn("⚠️ 주문 정보 조회 실패: ordNo={}, ordItemSeq={}, error={}", 
-                    ordNo, ordItemSeq, e.getMessage());
-            return null;
+            log.warn("⚠️ 주문 정보 조회 실패: ordNos={}, ordItemSeqs={}, error={}", 
+                    orders, seqs, e.getMessage());
+            return List.of();
         }
     }
 
     /**
-     * 클레임 사유 코드 → 사유명 변환 (DB 조회)
+     * 단일 주문 상품 조회 (단기 캐시 사용, 상담 검색용)
+     * 같은 주문의 동시 조회는 한 번의 쿼리를 공유
      */
-    private String getClaimReasonName(String clmRsnCd) {
-        if (clmRsnCd == null || clmRsnCd.isEmpty()) {
-            return null;
-        }
+    public List<OrderInfo> getCachedOrderItems(String ordNo, Collection<Integer> ordItemSeqs) {
+        return orderSnapshotCache.get(ordNo, ordItemSeqs, () -> getOrderItems(List.of(ordNo), ordItemSeqs));
+    }
 
-        try {
-            String sql = "SELECT COMM_CD_NM FROM SSG.COMM_CD_DTLC WHERE COMM_CD_GRP_NO = 'OR07' AND COMM_CD_NO = ?";
-            return jdbcTemplate.queryForObject(sql, String.class, clmRsnCd);
-        } catch (Exception e) {
-            log.debug("클레임 사유명 조회 실패: {}", clmRsnCd);
-            return clmRsnCd;
-        }
+    /**
+     * 주문 상태 변경 시 캐시된 주문 정보 제거
+     * @return 삭제된 엔트리 수
+     */
+    public int invalidateOrder(String ordNo) {
+        return orderSnapshotCache.invalidate(ordNo);
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return orderSnapshotCache.getStats();
+    }
+
+    private OrderInfo mapOrderItem(ResultSet rs) throws SQLException {
+        String statCd = rs.getString("ORD_ITEM_STAT_CD");
+        String shppCd = rs.getString("SHPP_MTHD_CD");
+        String clmCd = rs.getString("CLM_RSN_CD");
+        String clmNm = rs.getString("CLM_RSN_NM");
+
+        return OrderInfo.builder()
+                .ordNo(rs.getString("ORD_NO"))
+                .ordItemSeq(rs.getInt("ORD_ITEM_SEQ"))
+                .ordItemStatCd(statCd)
+                .ordItemStatNm(commonCodeService.getName(CommonCodeService.ORDER_STATUS, statCd))
+                .itemId(rs.getString("ITEM_ID"))
+                .itemNm(rs.getString("ITEM_NM"))
+                .uitemId(rs.getString("UITEM_ID"))
+                .uitemNm(rs.getString("UITEM_NM"))
+                .ordQty(rs.getInt("ORD_QTY"))
+                .cnclQty(rs.getInt("CNCL_QTY"))
+                .retQty(rs.getInt("RET_QTY"))
+                .ordAmt(rs.getLong("ORD_AMT"))
+                .dcAmt(rs.getLong("DC_AMT"))
+                .rlordAmt(rs.getLong("RLORD_AMT"))
+                .shppMthdCd(shppCd)
+                .shppMthdNm(commonCodeService.getName(CommonCodeService.SHIPPING_METHOD, shppCd))
+                .shppRsvtDt(rs.getString("SHPP_RSVT_DT"))
+                .shppDircExpcDt(rs.getString("SHPP_DIRC_EXPC_DT"))
+                .clmRsnCd(clmCd)
+                .clmRsnNm(clmNm != null ? clmNm : commonCodeService.getName(CommonCodeService.CLAIM_REASON, clmCd))
+                .clmRsnCntt(rs.getString("CLM_RSN_CNTT"))
+                .ordRcpDts(rs.getString("ORD_RCP_DTS"))
+                .ordItemStatChngDts(rs.getString("ORD_ITEM_STAT_CHNG_DTS"))
+                .build();
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
     }
 
     /**
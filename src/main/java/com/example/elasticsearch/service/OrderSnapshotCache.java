@@ -0,0 +1,183 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.dto.OrderInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 주문 상품 조회 결과 단기 캐시 (상담 세션 중 같은 주문 반복 조회용)
+ * 키: (주문번호, 상품순번 목록) - 상품순번이 없으면 전체 상품
+ * 같은 키의 동시 조회는 먼저 시작한 조회 하나를 함께 기다림 (single-flight, DB 풀 5개 보호)
+ * 함께 기다리는 쪽은 order.cache.wait-timeout-ms까지만 대기 (먼저 시작한 조회가 느려도 무한 대기하지 않음)
+ * 주문 상태 변경 시 invalidate(ordNo)로 해당 주문의 모든 키 제거
+ */
+@Component
+public class OrderSnapshotCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderSnapshotCache.class);
+
+    @Value("${order.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${order.cache.ttl-seconds:30}")
+    private long ttlSeconds;
+
+    @Value("${order.cache.max-entries:10000}")
+    private int maxEntries;
+
+    // 진행 중인 조회를 함께 기다리는 최대 시간 (상담 주문 조회 예산 이하)
+    @Value("${order.cache.wait-timeout-ms:1000}")
+    private long waitTimeoutMs;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder waitTimeouts = new LongAdder();
+
+    /**
+     * 캐시 조회, 없거나 만료되었으면 loader로 조회 (같은 키 동시 조회는 1회만 실행)
+     * 빈 결과(주문 없음 / 조회 실패)는 저장하지 않음
+     */
+    public List<OrderInfo> get(String ordNo, Collection<Integer> ordItemSeqs, Supplier<List<OrderInfo>> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        Key key = Key.of(ordNo, ordItemSeqs);
+        Entry created = new Entry();
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(System.currentTimeMillis()) ? existing : created);
+
+        if (entry != created) {
+            if (entry.future.isDone()) {
+                hits.increment();
+            } else {
+                sharedLoads.increment();
+            }
+            RequestTiming.put("orderCacheHit", true);
+            return await(entry.future);
+        }
+
+        misses.increment();
+        RequestTiming.put("orderCacheHit", false);
+        try {
+            List<OrderInfo> items = List.copyOf(loader.get());
+            if (items.isEmpty()) {
+                entries.remove(key, created);
+            } else {
+                created.expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds);
+                evictIfFull();
+            }
+            created.future.complete(items);
+            return items;
+        } catch (RuntimeException e) {
+            entries.remove(key, created);
+            created.future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 주문 상태 변경 시 해당 주문의 캐시 제거 (진행 중인 조회 결과도 저장되지 않음)
+     * @return 삭제된 엔트리 수
+     */
+    public int invalidate(String ordNo) {
+        int removed = 0;
+        for (Key key : entries.keySet()) {
+            if (key.ordNo().equals(ordNo) && entries.remove(key) != null) {
+                removed++;
+            }
+        }
+        invalidations.add(removed);
+        log.info("주문 캐시 무효화: ordNo={}, removed={}", ordNo, removed);
+        return removed;
+    }
+
+    /**
+     * 캐시 통계
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("ttlSeconds", ttlSeconds);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("sharedLoads", sharedLoads.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("waitTimeouts", waitTimeouts.sum());
+        return stats;
+    }
+
+    /**
+     * 최대 개수 초과 시 만료 엔트리 정리, 그래도 넘치면 전체 비움 (TTL이 짧아 재적재 비용 작음)
+     */
+    private void evictIfFull() {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        if (entries.size() > maxEntries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 진행 중인 조회 결과 대기 (제한 시간 초과 시 대기만 포기, 먼저 시작한 조회는 계속 진행되어 캐시에 저장됨)
+     */
+    private List<OrderInfo> await(CompletableFuture<List<OrderInfo>> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            waitTimeouts.increment();
+            throw new RuntimeException("주문 정보 조회 대기 시간 초과 (" + waitTimeoutMs + "ms)", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtimeException
+                    ? runtimeException
+                    : new RuntimeException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("주문 정보 조회 대기 중 인터럽트", e);
+        }
+    }
+
+    private record Key(String ordNo, List<Integer> ordItemSeqs) {
+        static Key of(String ordNo, Collection<Integer> ordItemSeqs) {
+            List<Integer> seqs = ordItemSeqs == null ? List.of() : ordItemSeqs.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .toList();
+            return new Key(ordNo, seqs);
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<List<OrderInfo>> future = new CompletableFuture<>();
+        // 조회 중에는 만료되지 않음 (완료 시점부터 TTL)
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        boolean isExpired(long now) {
+            return expiresAt < now;
+        }
+    }
+}
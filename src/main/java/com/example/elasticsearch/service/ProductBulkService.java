@@ -0,0 +1,253 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkIngester;
+import co.elastic.clients.elasticsearch._helpers.bulk.BulkListener;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import com.example.elasticsearch.dto.BulkIngestResponse;
+import com.example.elasticsearch.dto.BulkIngestResponse.ItemFailure;
+import com.example.elasticsearch.entity.Product;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 상품 대량 적재 서비스
+ * JSON 배열 / NDJSON 본문을 스트리밍으로 읽어 chunk-size 단위로 임베딩 후 BulkIngester로 색인
+ * 메모리에는 최대 chunk 1개 + BulkIngester 버퍼(max-operations × max-concurrent-requests)만 유지
+ */
+@Service
+public class ProductBulkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductBulkService.class);
+
+    private static final String INDEX_NAME = "products_korean";
+    private static final String VECTOR_FIELD = "name_vector";
+
+    private final ElasticsearchClient elasticsearchClient;
+    private final EmbeddingService embeddingService;
+    private final ObjectMapper objectMapper;
+    private final VectorSearchService vectorSearchService;
+
+    // 한 번에 임베딩할 상품 수 (/embed/batch 호출은 embedding.batch.max-size 단위로 다시 나뉨)
+    @Value("${product.bulk.chunk-size:256}")
+    private int chunkSize;
+
+    // Bulk 요청 flush 기준: 건수 / 바이트 / 시간 중 먼저 도달하는 것
+    @Value("${product.bulk.max-operations:1000}")
+    private int maxOperations;
+
+    @Value("${product.bulk.max-size-bytes:5242880}")
+    private long maxSizeBytes;
+
+    @Value("${product.bulk.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    // 동시에 진행 중인 Bulk 요청 수 (초과 시 add()가 대기 → 입력 읽기 속도 제한)
+    @Value("${product.bulk.max-concurrent-requests:2}")
+    private int maxConcurrentRequests;
+
+    // 응답에 상세 기록할 실패 항목 수
+    @Value("${product.bulk.max-failures:100}")
+    private int maxFailures;
+
+    public ProductBulkService(ElasticsearchClient elasticsearchClient,
+                              EmbeddingService embeddingService,
+                              ObjectMapper objectMapper,
+                              VectorSearchService vectorSearchService) {
+        this.elasticsearchClient = elasticsearchClient;
+        this.embeddingService = embeddingService;
+        this.objectMapper = objectMapper;
+        this.vectorSearchService = vectorSearchService;
+    }
+
+    /**
+     * 상품 대량 적재
+     * @param body JSON 배열 또는 NDJSON (한 줄에 상품 1건)
+     * @return 적재 결과 (파싱 오류 시 error에 사유, 그 전까지 읽은 상품은 색인됨)
+     */
+    public BulkIngestResponse ingest(InputStream body) {
+        long startTime = System.currentTimeMillis();
+        BulkIngestResponse result = new BulkIngestResponse();
+        FailureCollector collector = new FailureCollector(maxFailures);
+
+        BulkIngester<String> ingester = BulkIngester.of(b -> b
+                .client(elasticsearchClient)
+                .maxOperations(maxOperations)
+                .maxSize(maxSizeBytes)
+                .flushInterval(flushIntervalMs, TimeUnit.MILLISECONDS)
+                .maxConcurrentRequests(maxConcurrentRequests)
+                .listener(collector)
+        );
+
+        long total = 0;
+        long withoutVector = 0;
+
+        // readValues: 최상위 배열이면 원소 단위, 아니면 공백/줄바꿈으로 구분된 값 단위로 순회
+        try (MappingIterator<Product> products = objectMapper.readerFor(Product.class).readValues(body)) {
+            List<Product> chunk = new ArrayList<>(chunkSize);
+            while (products.hasNextValue()) {
+                chunk.add(products.nextValue());
+                if (chunk.size() >= chunkSize) {
+                    withoutVector += indexChunk(ingester, chunk);
+                    total += chunk.size();
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                withoutVector += indexChunk(ingester, chunk);
+                total += chunk.size();
+            }
+        } catch (IOException | RuntimeJsonMappingException e) {
+            log.error("상품 대량 적재 본문 파싱 실패 ({}건 처리 후): {}", total, e.getMessage());
+            result.setError("요청 본문 파싱 실패: " + e.getMessage());
+        } finally {
+            // 남은 버퍼 flush 후 진행 중인 요청 완료까지 대기
+            ingester.close();
+            // 일부만 적재되었어도 색인이 바뀌었으므로 검색 결과 캐시 무효화
+            vectorSearchService.invalidateCache();
+        }
+
+        result.setTotal(total);
+        result.setIndexed(collector.indexed.get());
+        result.setFailed(collector.failed.get());
+        result.setWithoutVector(withoutVector);
+        result.setFailures(new ArrayList<>(collector.failures));
+        result.setTookMs(System.currentTimeMillis() - startTime);
+
+        log.info("상품 대량 적재 완료: total={}, indexed={}, failed={}, withoutVector={}, {}ms",
+                total, result.getIndexed(), result.getFailed(), withoutVector, result.getTookMs());
+
+        return result;
+    }
+
+    /**
+     * chunk 단위 임베딩 + BulkIngester 등록
+     * @return 임베딩 실패로 벡터 없이 등록된 상품 수
+     */
+    private int indexChunk(BulkIngester<String> ingester, List<Product> chunk) {
+        List<Product> named = new ArrayList<>(chunk.size());
+        for (Product product : chunk) {
+            if (product.getId() == null) {
+                product.setId(UUID.randomUUID().toString());
+            }
+            if (product.getName() != null && !product.getName().isEmpty()) {
+                named.add(product);
+            }
+        }
+
+        int withoutVector = 0;
+        if (!named.isEmpty()) {
+            try {
+                List<float[]> vectors = embeddingService.getVectors(
+                        named.stream().map(Product::getName).toList());
+                for (int i = 0; i < named.size(); i++) {
+                    named.get(i).setNameVector(vectors.get(i));
+                }
+            } catch (Exception e) {
+                // 단건 저장과 동일하게 벡터 생성 실패 시에도 상품은 저장 (벡터 없이)
+                log.error("배치 벡터 생성 실패 ({}건): {}", named.size(), e.getMessage());
+                withoutVector = named.size();
+            }
+        }
+
+        for (Product product : chunk) {
+            ingester.add(BulkOperation.of(op -> op
+                    .index(idx -> idx
+                            .index(INDEX_NAME)
+                            .id(product.getId())
+                            .document(toDocument(product))
+                    )
+            ), product.getId());
+        }
+
+        return withoutVector;
+    }
+
+    /**
+     * ES 문서 변환 (매핑 필드명 기준, null 필드 제외)
+     */
+    private Map<String, Object> toDocument(Product product) {
+        Map<String, Object> document = new LinkedHashMap<>();
+        putIfNotNull(document, "name", product.getName());
+        putIfNotNull(document, "description", product.getDescription());
+        putIfNotNull(document, "price", product.getPrice());
+        putIfNotNull(document, "category", product.getCategory());
+        putIfNotNull(document, "stock", product.getStock());
+        putIfNotNull(document, VECTOR_FIELD, product.getNameVector());
+        return document;
+    }
+
+    private static void putIfNotNull(Map<String, Object> document, String field, Object value) {
+        if (value != null) {
+            document.put(field, value);
+        }
+    }
+
+    /**
+     * Bulk 응답별 성공/실패 집계 (BulkIngester 스레드에서 호출)
+     */
+    private static final class FailureCollector implements BulkListener<String> {
+
+        private final int maxFailures;
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicInteger recorded = new AtomicInteger();
+        private final Queue<ItemFailure> failures = new ConcurrentLinkedQueue<>();
+
+        FailureCollector(int maxFailures) {
+            this.maxFailures = maxFailures;
+        }
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request, List<String> contexts) {
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<String> contexts, BulkResponse response) {
+            for (BulkResponseItem item : response.items()) {
+                if (item.error() != null) {
+                    failed.incrementAndGet();
+                    record(item.id(), item.error().reason());
+                } else {
+                    indexed.incrementAndGet();
+                }
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, List<String> contexts, Throwable failure) {
+            log.error("Bulk 요청 실패 ({}건): {}", contexts.size(), failure.getMessage());
+            failed.addAndGet(contexts.size());
+            for (String id : contexts) {
+                record(id, failure.getMessage());
+            }
+        }
+
+        private void record(String id, String reason) {
+            if (recorded.getAndIncrement() < maxFailures) {
+                failures.add(new ItemFailure(id, reason));
+            }
+        }
+    }
+}
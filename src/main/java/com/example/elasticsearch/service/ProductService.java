@@ -19,11 +19,14 @@ public class ProductService {
     
     private final ProductRepository productRepository;
     private final EmbeddingService embeddingService;
+    private final VectorSearchService vectorSearchService;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, EmbeddingService embeddingService) {
+    public ProductService(ProductRepository productRepository, EmbeddingService embeddingService,
+                          VectorSearchService vectorSearchService) {
         this.productRepository = productRepository;
         this.embeddingService = embeddingService;
+        this.vectorSearchService = vectorSearchService;
     }
 
     public Product saveProduct(Product product) {
@@ -35,16 +38,19 @@ public class ProductService {
         if (product.getName() != null && !product.getName().isEmpty()) {
             try {
                 log.info("상품 '{}' 벡터 생성 중...", product.getName());
-                List<Float> vector = embeddingService.getVector(product.getName());
+                float[] vector = embeddingService.getVector(product.getName());
                 product.setNameVector(vector);
-                log.info("벡터 생성 완료 ({}차원)", vector.size());
+                log.info("벡터 생성 완료 ({}차원)", vector.length);
             } catch (Exception e) {
                 log.error("벡터 생성 실패 (상품: {}): {}", product.getName(), e.getMessage());
                 // 벡터 생성 실패 시에도 상품은 저장됨 (벡터 없이)
             }
         }
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        // 상품이 바뀌었으므로 이전 검색 결과 재사용 중단
+        vectorSearchService.invalidateCache();
+        return saved;
     }
 
     public Optional<Product> getProduct(String id) {
@@ -59,6 +65,7 @@ public class ProductService {
 
     public void deleteProduct(String id) {
         productRepository.deleteById(id);
+        vectorSearchService.invalidateCache();
     }
 
     public List<Product> searchByName(String name) {
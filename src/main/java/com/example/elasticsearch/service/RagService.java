@@ -1,13 +1,24 @@
 package com.example.elasticsearch.service;
 
+import com.example.elasticsearch.dto.ProductFilter;
+import com.example.elasticsearch.dto.RagBatchRequest;
+import com.example.elasticsearch.dto.RagBatchResponse;
 import com.example.elasticsearch.dto.RagRequest;
 import com.example.elasticsearch.dto.RagResponse;
+import com.example.elasticsearch.dto.SearchMode;
 import com.example.elasticsearch.entity.Product;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * RAG (Retrieval-Augmented Generation) 서비스
@@ -19,39 +30,155 @@ public class RagService {
     private static final Logger logger = LoggerFactory.getLogger(RagService.class);
     
     private final VectorSearchService vectorSearchService;
+    private final StageMetrics stageMetrics;
+    private final Executor searchExecutor;
     
-    public RagService(VectorSearchService vectorSearchService) {
+    @Value("${rag.batch.max-queries:100}")
+    private int batchMaxQueries;
+    
+    public RagService(VectorSearchService vectorSearchService, StageMetrics stageMetrics,
+                      @Qualifier("searchExecutor") Executor searchExecutor) {
         this.vectorSearchService = vectorSearchService;
+        this.stageMetrics = stageMetrics;
+        this.searchExecutor = searchExecutor;
     }
     
     /**
-     * RAG 검색 실행
+     * RAG 검색 실행 (비동기)
+     * 요청 스레드는 바로 반환되고, 임베딩 / 컨텍스트 구성은 searchExecutor에서, kNN은 ES 비동기 요청으로 실행
      * @param request 검색 요청 (query, topK)
      * @return RAG 응답 (context, products)
      */
-    public RagResponse search(RagRequest request) {
-        logger.info("RAG 검색 시작: query={}, topK={}", request.getQuery(), request.getTopK());
+    public CompletableFuture<RagResponse> searchAsync(RagRequest request) {
+        logger.info("RAG 비동기 검색 시작: query={}, topK={}, mode={}", request.getQuery(), request.getTopK(), request.getMode());
         
-        try {
-            // 1. 벡터 검색으로 유사한 상품 찾기
-            List<Product> products = vectorSearchService.vectorSearch(
-                    request.getQuery(), 
-                    request.getTopK()
-            );
-            
-            // 2. 검색 결과를 Claude가 이해할 수 있는 컨텍스트로 변환
-            String context = buildContext(request.getQuery(), products);
-            
-            // 3. 응답 생성
-            RagResponse response = new RagResponse(request.getQuery(), context, products);
+        RequestTiming timing = RequestTiming.current();
+        return vectorSearchService.searchAsync(request.getQuery(), request.getTopK(), request.getMode(),
+                request.toFilter(), searchExecutor)
+            .thenApplyAsync(products -> {
+                String context = buildContext(request.getQuery(), products);
+                
+                RagResponse response = new RagResponse(request.getQuery(), context, products);
+                response.setTimings(RequestTiming.snapshot(timing));
+                
+                logger.info("RAG 검색 완료: {}개 상품 발견", products.size());
+                return response;
+            }, searchExecutor);
+    }
+    
+    /**
+     * RAG 배치 검색 실행 (비동기, 요청 스레드는 바로 반환)
+     * - VECTOR: 모든 검색어를 한 번의 임베딩 배치 호출 + 한 번의 msearch로 처리 (searchExecutor에서 실행)
+     * - TEXT / HYBRID_*: 검색어별 비동기 검색을 병렬 실행 (단건 검색과 같은 경로)
+     * 필터는 모드와 관계없이 모든 검색어에 적용
+     * 빈 검색어 / 하위 검색 실패는 해당 항목의 error로만 표시하고 나머지는 정상 반환
+     * @param request 배치 검색 요청 (queries, topK, mode, 필터)
+     * @return 검색어 순서대로의 RAG 응답 목록
+     * @throws IllegalArgumentException 검색어 수가 rag.batch.max-queries 초과
+     */
+    public CompletableFuture<RagBatchResponse> searchBatchAsync(RagBatchRequest request) {
+        long startTime = System.currentTimeMillis();
+        List<String> queries = request.getQueries();
+        if (queries.size() > batchMaxQueries) {
+            throw new IllegalArgumentException("배치 검색어는 최대 " + batchMaxQueries + "개까지 가능합니다: " + queries.size());
+        }
+        
+        ProductFilter filter = request.toFilter();
+        logger.info("RAG 배치 검색 시작: queries={}, topK={}, mode={}, filter={}", queries.size(), request.getTopK(),
+                request.getMode(), filter);
+        
+        // 빈 검색어는 임베딩/검색에서 제외
+        List<String> validQueries = new ArrayList<>();
+        for (String query : queries) {
+            if (query != null && !query.trim().isEmpty()) {
+                validQueries.add(query);
+            }
+        }
+        
+        RequestTiming timing = RequestTiming.current();
+        CompletableFuture<List<VectorSearchService.BatchResult>> batchFuture;
+        if (validQueries.isEmpty()) {
+            batchFuture = CompletableFuture.completedFuture(List.of());
+        } else if (request.getMode() == SearchMode.VECTOR) {
+            batchFuture = CompletableFuture.supplyAsync(
+                    () -> vectorSearchService.vectorSearchBatch(validQueries, request.getTopK(), filter), searchExecutor);
+        } else {
+            batchFuture = searchEach(validQueries, request.getTopK(), request.getMode(), filter);
+        }
+        
+        return batchFuture.thenApplyAsync(batchResults -> {
+            RagBatchResponse response = toBatchResponse(queries, batchResults, startTime);
+            response.setTimings(RequestTiming.snapshot(timing));
             
-            logger.info("RAG 검색 완료: {}개 상품 발견", products.size());
+            logger.info("RAG 배치 검색 완료: {}건 중 {}건 실패, {}ms", response.getCount(), response.getFailed(),
+                    response.getResponseTime());
             return response;
+        }, searchExecutor);
+    }
+    
+    /**
+     * 검색어별 비동기 검색 (VECTOR 외 모드)
+     * 한 검색어의 실패는 해당 항목의 error로만 표시
+     */
+    private CompletableFuture<List<VectorSearchService.BatchResult>> searchEach(List<String> queries, int topK,
+                                                                               SearchMode mode, ProductFilter filter) {
+        List<CompletableFuture<VectorSearchService.BatchResult>> futures = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            CompletableFuture<List<Product>> search;
+            try {
+                search = vectorSearchService.searchAsync(query, topK, mode, filter, searchExecutor);
+            } catch (RejectedExecutionException e) {
+                search = CompletableFuture.failedFuture(e);
+            }
+            futures.add(search.handle((products, error) -> error == null
+                    ? new VectorSearchService.BatchResult(products, null)
+                    : new VectorSearchService.BatchResult(List.of(), "검색 실패: " + rootMessage(error))));
+        }
+        
+        return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> futures.stream().map(CompletableFuture::join).toList());
+    }
+    
+    /**
+     * 검색어 순서대로 응답 구성 (빈 검색어는 error 항목)
+     */
+    private RagBatchResponse toBatchResponse(List<String> queries, List<VectorSearchService.BatchResult> batchResults,
+                                             long startTime) {
+        List<RagResponse> results = new ArrayList<>(queries.size());
+        int next = 0;
+        for (String query : queries) {
+            if (query == null || query.trim().isEmpty()) {
+                RagResponse empty = new RagResponse(query, null, List.of());
+                empty.setError("검색어가 비어있음");
+                results.add(empty);
+                continue;
+            }
             
-        } catch (Exception e) {
-            logger.error("RAG 검색 중 오류 발생: {}", e.getMessage(), e);
-            throw new RuntimeException("RAG 검색 실패: " + e.getMessage(), e);
+            VectorSearchService.BatchResult batchResult = batchResults.get(next++);
+            RagResponse response = new RagResponse(query,
+                    batchResult.error() == null ? buildContext(query, batchResult.products()) : null,
+                    batchResult.products());
+            response.setError(batchResult.error());
+            results.add(response);
+        }
+        
+        return new RagBatchResponse(results, System.currentTimeMillis() - startTime);
+    }
+    
+    private static String rootMessage(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
         }
+        return cause.getMessage();
+    }
+    
+    /**
+     * 컨텍스트 생성 (처리 시간 측정)
+     */
+    private String buildContext(String query, List<Product> products) {
+        return stageMetrics.time(StageMetrics.CONTEXT, StageMetrics.NONE, StageMetrics.NONE,
+            () -> formatContext(query, products));
     }
     
     /**
@@ -60,7 +187,7 @@ public class RagService {
      * @param products 검색된 상품 리스트
      * @return 포맷팅된 컨텍스트 텍스트
      */
-    private String buildContext(String query, List<Product> products) {
+    private String formatContext(String query, List<Product> products) {
         if (products == null || products.isEmpty()) {
             return "관련된 상품을 찾지 못했습니다.";
         }
@@ -0,0 +1,57 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 여러 검색 결과 순위를 하나로 합치는 Reciprocal Rank Fusion
+ * score(d) = Σ 1 / (rankConstant + rank_i(d))
+ */
+final class RankFusion {
+
+    private RankFusion() {
+    }
+
+    /**
+     * @param rankings 각 검색의 hit 목록 (순위순)
+     * @param rankConstant RRF 상수 (보통 60)
+     * @param topK 반환할 결과 수
+     * @param scoreSetter 융합 점수를 결과 객체에 기록하는 함수
+     * @return 융합 점수 내림차순 상위 topK
+     */
+    static <T> List<T> reciprocalRank(List<List<Hit<T>>> rankings, int rankConstant, int topK,
+                                      BiConsumer<T, Double> scoreSetter) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Map<String, T> sources = new LinkedHashMap<>();
+
+        for (List<Hit<T>> hits : rankings) {
+            for (int rank = 0; rank < hits.size(); rank++) {
+                Hit<T> hit = hits.get(rank);
+                if (hit.source() == null) {
+                    continue;
+                }
+                scores.merge(hit.id(), 1.0 / (rankConstant + rank + 1), Double::sum);
+                sources.putIfAbsent(hit.id(), hit.source());
+            }
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+        List<T> fused = new ArrayList<>(Math.min(topK, ranked.size()));
+        for (Map.Entry<String, Double> entry : ranked) {
+            if (fused.size() >= topK) {
+                break;
+            }
+            T source = sources.get(entry.getKey());
+            scoreSetter.accept(source, entry.getValue());
+            fused.add(source);
+        }
+        return fused;
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.elasticsearch.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청 단위 처리 시간 내역 (X-Debug-Timing 헤더가 있을 때만 생성)
+ * ThreadLocal 기반이라 비활성 요청에서는 current() == null 확인 한 번이 전부
+ * 비동기 단계는 propagate()로 감싼 작업에서만 같은 내역에 기록됨
+ * ES 비동기 콜백처럼 스레드를 지정할 수 없는 경우 current()로 잡아 둔 내역에 직접 기록 (timing 인자 오버로드)
+ */
+public final class RequestTiming {
+
+    public static final String HEADER = "X-Debug-Timing";
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+
+    // 단계별 누적 시간 (nanos) / 기타 값 (캐시 적중 여부, 프롬프트 크기 등)
+    private final Map<String, Long> durations = new LinkedHashMap<>();
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    private RequestTiming() {
+    }
+
+    /**
+     * 현재 스레드에서 내역 수집 시작
+     */
+    public static RequestTiming start() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 작업 실행 스레드로 현재 요청의 내역을 전달 (TaskDecorator 용)
+     */
+    public static Runnable propagate(Runnable task) {
+        RequestTiming timing = CURRENT.get();
+        if (timing == null) {
+            return task;
+        }
+        return () -> {
+            RequestTiming previous = CURRENT.get();
+            CURRENT.set(timing);
+            try {
+                task.run();
+            } finally {
+                if (previous != null) {
+                    CURRENT.set(previous);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * 단계 시간 누적 (같은 키로 여러 번 호출되면 합산)
+     */
+    public static void addNanos(String key, long nanos) {
+        addNanos(CURRENT.get(), key, nanos);
+    }
+
+    public static void addNanos(RequestTiming timing, String key, long nanos) {
+        if (timing != null) {
+            synchronized (timing) {
+                timing.durations.merge(key, nanos, Long::sum);
+            }
+        }
+    }
+
+    public static void addMillis(String key, long millis) {
+        addNanos(key, millis * 1_000_000L);
+    }
+
+    public static void addMillis(RequestTiming timing, String key, long millis) {
+        addNanos(timing, key, millis * 1_000_000L);
+    }
+
+    /**
+     * 기타 값 기록 (같은 키는 덮어씀)
+     */
+    public static void put(String key, Object value) {
+        put(CURRENT.get(), key, value);
+    }
+
+    public static void put(RequestTiming timing, String key, Object value) {
+        if (timing != null) {
+            synchronized (timing) {
+                timing.values.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * 응답에 포함할 내역 (수집 중이 아니면 null → 응답 필드 생략)
+     * 시간 값은 ms 단위 소수점 첫째 자리
+     */
+    public static Map<String, Object> snapshot() {
+        return snapshot(CURRENT.get());
+    }
+
+    public static Map<String, Object> snapshot(RequestTiming timing) {
+        if (timing == null) {
+            return null;
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        synchronized (timing) {
+            timing.durations.forEach((key, nanos) -> snapshot.put(key, toMillis(nanos)));
+            snapshot.putAll(timing.values);
+        }
+        snapshot.put("totalMs", toMillis(System.nanoTime() - timing.startNanos));
+        return snapshot;
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+}
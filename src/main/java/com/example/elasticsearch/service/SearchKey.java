@@ -0,0 +1,16 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.dto.SearchMode;
+
+/**
+ * 검색 요청 식별 키 (동일 검색 합치기용)
+ * 검색어는 앞뒤 공백만 제거 (대소문자/형태가 다르면 다른 검색으로 취급)
+ * filter는 equals 비교 가능한 값 (ProductFilter, use_yn 등) - 필터가 다르면 다른 검색
+ */
+record SearchKey(String index, String query, int topK, SearchMode mode, Object filter) {
+
+    static SearchKey of(String index, String query, int topK, SearchMode mode, Object filter) {
+        return new SearchKey(index, query != null ? query.strip() : null, topK,
+                mode != null ? mode : SearchMode.VECTOR, filter);
+    }
+}
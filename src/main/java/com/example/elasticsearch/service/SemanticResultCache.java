@@ -0,0 +1,196 @@
+package com.example.elasticsearch.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * 의미상 거의 같은 검색어의 kNN 결과 재사용 캐시
+ * 최근 검색 벡터(정규화)를 고정 크기 배열에 보관하고, 새 검색 벡터와의 코사인 유사도가
+ * threshold 이상인 항목이 있으면 그 top-K를 그대로 반환 ("반품 어떻게 해요" ≈ "반품 방법")
+ * - 조회: 읽기 락 아래 전체 선형 탐색 (maxEntries × 차원 수 만큼의 내적, 수백 건 기준 1ms 미만)
+ * - 저장: 가장 오래된 슬롯부터 덮어씀 (FIFO)
+ * - 무효화: 색인 변경 시 전체 비움, 무효화 이전에 시작된 검색 결과는 저장하지 않음 (generation 비교)
+ * - 범위(scope): 검색 필터 등 결과에 영향을 주는 값, scope가 같은(equals) 항목끼리만 재사용
+ * - 복사: 저장 / 적중 시 모두 엔티티를 복사 (검색어별 점수가 담긴 엔티티를 캐시와 호출자가 공유하지 않도록)
+ */
+final class SemanticResultCache<T> {
+
+    private final boolean enabled;
+    private final double threshold;
+    private final long ttlMillis;
+    private final UnaryOperator<T> copier;
+
+    private final float[][] vectors;
+    private final int[] topKs;
+    private final Object[] scopes;
+    private final List<?>[] results;
+    private final long[] expiresAt;
+    private int cursor;
+    private long generation;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    SemanticResultCache(boolean enabled, int maxEntries, double threshold, long ttlSeconds, UnaryOperator<T> copier) {
+        this.enabled = enabled && maxEntries > 0;
+        this.threshold = threshold;
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.copier = copier;
+        int capacity = Math.max(maxEntries, 0);
+        this.vectors = new float[capacity][];
+        this.topKs = new int[capacity];
+        this.scopes = new Object[capacity];
+        this.results = new List<?>[capacity];
+        this.expiresAt = new long[capacity];
+    }
+
+    /**
+     * 유사한 이전 검색 결과 조회
+     * @param scope 검색 필터 (같은 필터로 저장된 결과만 재사용)
+     * @return results가 null이면 미적중 (generation은 put() 호출 시 그대로 전달)
+     */
+    Lookup<T> lookup(float[] queryVector, int topK, Object scope) {
+        if (!enabled) {
+            return new Lookup<>(null, 0);
+        }
+
+        float[] normalized = normalize(queryVector);
+        long now = System.currentTimeMillis();
+
+        lock.readLock().lock();
+        try {
+            int best = -1;
+            double bestSimilarity = threshold;
+            for (int i = 0; i < vectors.length; i++) {
+                float[] cached = vectors[i];
+                if (cached == null || cached.length != normalized.length
+                        || topKs[i] < topK || expiresAt[i] < now || !Objects.equals(scopes[i], scope)) {
+                    continue;
+                }
+                double similarity = dot(cached, normalized);
+                if (similarity >= bestSimilarity) {
+                    best = i;
+                    bestSimilarity = similarity;
+                }
+            }
+
+            if (best < 0) {
+                misses.increment();
+                return new Lookup<>(null, generation);
+            }
+
+            hits.increment();
+            @SuppressWarnings("unchecked")
+            List<T> cachedResults = (List<T>) results[best];
+            return new Lookup<>(copyOf(cachedResults, Math.min(topK, cachedResults.size())), generation);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 검색 결과 저장
+     * @param scope lookup()에 전달한 검색 필터
+     * @param generation lookup() 시점의 generation (그 사이 무효화되었으면 저장하지 않음)
+     */
+    void put(float[] queryVector, int topK, Object scope, List<T> searchResults, long generation) {
+        if (!enabled) {
+            return;
+        }
+
+        float[] normalized = normalize(queryVector);
+        List<T> copy = List.copyOf(copyOf(searchResults, searchResults.size()));
+
+        lock.writeLock().lock();
+        try {
+            if (generation != this.generation) {
+                return;
+            }
+            int slot = cursor;
+            cursor = (cursor + 1) % vectors.length;
+            vectors[slot] = normalized;
+            topKs[slot] = topK;
+            scopes[slot] = scope;
+            results[slot] = copy;
+            expiresAt[slot] = System.currentTimeMillis() + ttlMillis;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 색인 변경 시 전체 무효화
+     */
+    void invalidate() {
+        lock.writeLock().lock();
+        try {
+            generation++;
+            for (int i = 0; i < vectors.length; i++) {
+                vectors[i] = null;
+                scopes[i] = null;
+                results[i] = null;
+            }
+            cursor = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        invalidations.increment();
+    }
+
+    Map<String, Object> getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("maxEntries", vectors.length);
+        stats.put("threshold", threshold);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("hitRate", total > 0 ? (double) hitCount / total : 0.0);
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    private List<T> copyOf(List<T> documents, int count) {
+        List<T> copy = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            copy.add(copier.apply(documents.get(i)));
+        }
+        return copy;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        float[] normalized = new float[vector.length];
+        if (norm == 0) {
+            return normalized;
+        }
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = (float) (vector[i] / norm);
+        }
+        return normalized;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    record Lookup<T>(List<T> results, long generation) {
+    }
+}
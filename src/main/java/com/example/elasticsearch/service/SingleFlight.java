@@ -0,0 +1,95 @@
+package com.example.elasticsearch.service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 진행 중인 동일 요청 합치기 (single-flight)
+ * 같은 키로 동시에 들어온 호출은 먼저 시작한 호출 하나의 결과(또는 예외)를 함께 받음
+ * 결과는 저장하지 않음 - 호출이 끝나면 성공/실패와 관계없이 키 제거
+ * 진행 중인 키가 maxInFlight개를 넘으면 합치지 않고 바로 실행 (맵이 무한히 커지지 않도록)
+ */
+final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final int maxInFlight;
+
+    SingleFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * @return call 결과 (다른 스레드가 같은 키로 실행 중이면 그 결과)
+     */
+    V execute(K key, Supplier<V> call) {
+        if (inFlight.size() >= maxInFlight) {
+            return call.get();
+        }
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            RequestTiming.put("searchShared", true);
+            return join(existing);
+        }
+
+        try {
+            V result = call.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    /**
+     * 비동기 호출 합치기 (결과 future가 완료될 때 키 제거)
+     * 호출자마다 복사본 future를 반환 (한 호출자의 orTimeout/cancel이 다른 호출자에게 전파되지 않도록)
+     */
+    CompletableFuture<V> executeAsync(K key, Supplier<CompletableFuture<V>> call) {
+        if (inFlight.size() >= maxInFlight) {
+            return call.get();
+        }
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            RequestTiming.put("searchShared", true);
+            return existing.copy();
+        }
+
+        CompletableFuture<V> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+        future.whenComplete((result, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+            } else {
+                created.complete(result);
+            }
+        });
+        return created.copy();
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+}
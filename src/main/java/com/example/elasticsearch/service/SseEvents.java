@@ -0,0 +1,51 @@
+package com.example.elasticsearch.service;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * SSE 이벤트 전송 유틸리티
+ * 데이터는 항상 JSON으로 보냄 (토큰 안의 줄바꿈이 SSE 프레임을 깨지 않도록)
+ */
+final class SseEvents {
+
+    static final String RETRIEVAL = "retrieval";
+    static final String TOKEN = "token";
+    static final String DONE = "done";
+    static final String ERROR = "error";
+
+    private SseEvents() {
+    }
+
+    /**
+     * 이벤트 전송 (클라이언트 연결 종료 시 UncheckedIOException → 스트림 구독 취소)
+     */
+    static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data, MediaType.APPLICATION_JSON));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void sendToken(SseEmitter emitter, String token) {
+        send(emitter, TOKEN, Map.of("text", token));
+    }
+
+    /**
+     * 오류 이벤트 전송 후 스트림 종료 (이미 끊긴 연결이면 조용히 종료)
+     */
+    static void sendErrorAndComplete(SseEmitter emitter, Throwable error) {
+        try {
+            String message = error.getMessage() != null ? error.getMessage() : error.toString();
+            emitter.send(SseEmitter.event().name(ERROR).data(Map.of("message", message), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (Exception e) {
+            emitter.completeWithError(error);
+        }
+    }
+}
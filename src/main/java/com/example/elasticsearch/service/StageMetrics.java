@@ -0,0 +1,152 @@
+package com.example.elasticsearch.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * RAG 파이프라인 단계별 지연 시간 측정
+ * 타이머: rag.stage{stage, index, provider, outcome} (percentile histogram → Prometheus histogram_quantile)
+ * p99 회귀가 Oracle / ES / 임베딩 사이드카 / Bedrock 중 어디서 오는지 구분하기 위한 용도
+ * X-Debug-Timing 요청이면 같은 측정값을 RequestTiming 에도 누적 (요청별 내역)
+ */
+@Component
+public class StageMetrics {
+
+    static final String METRIC_NAME = "rag.stage";
+    static final String CACHE_METRIC_NAME = "rag.cache";
+
+    // stage 태그 값
+    static final String EMBEDDING = "embedding";
+    static final String KNN = "knn";
+    static final String KNN_BATCH = "knn_batch";
+    static final String TEXT = "text";
+    static final String HYBRID_LINEAR = "hybrid_linear";
+    static final String HYBRID_RRF = "hybrid_rrf";
+    static final String ORDER = "order";
+    static final String CONTEXT = "context";
+    static final String LLM = "llm";
+
+    // index / provider 태그 값 (해당 없음)
+    static final String NONE = "none";
+
+    private static final String SUCCESS = "success";
+    private static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 단계 실행 시간 측정 (예외 발생 시 outcome=error 로 기록 후 그대로 전파)
+     */
+    public <T> T time(String stage, String index, String provider, Supplier<T> call) {
+        long startNanos = System.nanoTime();
+        try {
+            T result = call.get();
+            record(stage, index, provider, SUCCESS, System.nanoTime() - startNanos);
+            return result;
+        } catch (RuntimeException e) {
+            record(stage, index, provider, ERROR, System.nanoTime() - startNanos);
+            throw e;
+        }
+    }
+
+    /**
+     * checked 예외를 던지는 호출 측정 (ES / JDBC 클라이언트 호출용)
+     */
+    public <T> T timeChecked(String stage, String index, String provider, Callable<T> call) throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            T result = call.call();
+            record(stage, index, provider, SUCCESS, System.nanoTime() - startNanos);
+            return result;
+        } catch (Exception e) {
+            record(stage, index, provider, ERROR, System.nanoTime() - startNanos);
+            throw e;
+        }
+    }
+
+    /**
+     * 비동기 호출 측정 (완료 시점에 기록)
+     * 완료 콜백은 다른 스레드에서 실행되므로 요청별 내역은 호출 시점의 RequestTiming에 기록
+     */
+    public <T> CompletableFuture<T> timeAsync(String stage, String index, String provider,
+                                              Callable<CompletableFuture<T>> call) {
+        RequestTiming timing = RequestTiming.current();
+        long startNanos = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = call.call();
+        } catch (Exception e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> {
+            long nanos = System.nanoTime() - startNanos;
+            RequestTiming.addNanos(timing, timingKey(stage), nanos);
+            register(stage, index, provider, error == null ? SUCCESS : ERROR, nanos);
+        });
+    }
+
+    /**
+     * 이미 측정한 시간 기록 (캐시 적중 등 분기별로 provider가 달라지는 경우)
+     */
+    public void record(String stage, String index, String provider, boolean success, long nanos) {
+        record(stage, index, provider, success ? SUCCESS : ERROR, nanos);
+    }
+
+    /**
+     * 캐시 조회 결과 집계 (rag.cache{cache, index, result=hit|miss} → 적중률)
+     */
+    public void recordCache(String cache, String index, boolean hit) {
+        Counter.builder(CACHE_METRIC_NAME)
+                .description("RAG 파이프라인 캐시 조회 수")
+                .tag("cache", cache)
+                .tag("index", index)
+                .tag("result", hit ? "hit" : "miss")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void record(String stage, String index, String provider, String outcome, long nanos) {
+        RequestTiming.addNanos(timingKey(stage), nanos);
+        register(stage, index, provider, outcome, nanos);
+    }
+
+    private void register(String stage, String index, String provider, String outcome, long nanos) {
+        Timer.builder(METRIC_NAME)
+                .description("RAG 파이프라인 단계별 처리 시간")
+                .tag("stage", stage)
+                .tag("index", index)
+                .tag("provider", provider)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(120))
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 요청별 내역 키 (ES 검색은 종류와 무관하게 클라이언트 관측 시간으로 합산)
+     */
+    private static String timingKey(String stage) {
+        return switch (stage) {
+            case EMBEDDING -> "embedMs";
+            case KNN, KNN_BATCH, TEXT, HYBRID_LINEAR, HYBRID_RRF -> "esClientMs";
+            case ORDER -> "oracleMs";
+            case CONTEXT -> "contextMs";
+            case LLM -> "llmMs";
+            default -> stage + "Ms";
+        };
+    }
+}
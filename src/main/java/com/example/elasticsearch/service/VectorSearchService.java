@@ -2,27 +2,75 @@ package com.example.elasticsearch.service;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
-import co.elastic.clients.elasticsearch.core.SearchRequest;
-import co.elastic.clients.elasticsearch.core.SearchResponse;
-import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.json.JsonData;
+import com.example.elasticsearch.dto.ProductFilter;
+import com.example.elasticsearch.dto.SearchMode;
 import com.example.elasticsearch.entity.Product;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
+/**
+ * 상품 검색 서비스 (products_korean)
+ * 벡터 / 텍스트 / 하이브리드 검색은 AbstractVectorSearchService 공통 구현, 필터는 카테고리 / 가격 범위 / 재고
+ */
 @Service
-public class VectorSearchService {
-    
-    private final ElasticsearchClient elasticsearchClient;
-    private final EmbeddingService embeddingService;
-    
+public class VectorSearchService extends AbstractVectorSearchService<Product, ProductFilter> {
+
     private static final String INDEX_NAME = "products_korean";
-    private static final String VECTOR_FIELD = "name_vector";
 
-    public VectorSearchService(ElasticsearchClient elasticsearchClient, EmbeddingService embeddingService) {
-        this.elasticsearchClient = elasticsearchClient;
-        this.embeddingService = embeddingService;
+    // 필터 대상 필드 (category는 동적 매핑의 keyword 서브필드로 정확히 일치)
+    private static final String CATEGORY_FIELD = "category.keyword";
+    private static final String PRICE_FIELD = "price";
+    private static final String STOCK_FIELD = "stock";
+
+    private static final IndexSpec<Product> INDEX_SPEC = new IndexSpec<>(
+            "상품",
+            INDEX_NAME,
+            "name_vector",
+            List.of("name^3", "description", "category"),
+            SourceConfig.of(src -> src.filter(f -> f
+                    .includes("id", "name", "description", "price", "category", "stock")
+            )),
+            Product.class,
+            Product::setScore,
+            Product::copy
+    );
+
+    public VectorSearchService(ElasticsearchClient elasticsearchClient, KnnSearchClient knnSearchClient,
+                               EmbeddingService embeddingService, StageMetrics stageMetrics,
+                               @Value("${search.knn.products.candidate-ratio:15}") double candidateRatio,
+                               @Value("${search.knn.products.min-candidates:40}") int minCandidates,
+                               @Value("${search.knn.products.max-candidates:1000}") int maxCandidates,
+                               @Value("${search.single-flight.max-in-flight:1000}") int maxInFlight) {
+        super(INDEX_SPEC, elasticsearchClient, knnSearchClient, embeddingService, stageMetrics,
+                new KnnCandidatePolicy(candidateRatio, minCandidates, maxCandidates), maxInFlight);
+    }
+
+    /**
+     * 검색 모드에 따른 상품 검색 (필터 없음)
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @param mode 검색 모드 (null이면 VECTOR)
+     * @return 상품 리스트 (호출자별 복사본)
+     */
+    public List<Product> search(String queryText, int topK, SearchMode mode) {
+        return search(queryText, topK, mode, ProductFilter.NONE);
+    }
+
+    /**
+     * 벡터 기반 검색 (기본 5개 결과)
+     * @param queryText 검색어
+     * @return 유사한 상품 리스트
+     */
+    public List<Product> vectorSearch(String queryText) {
+        return vectorSearch(queryText, 5);
     }
 
     /**
@@ -32,50 +80,155 @@ public class VectorSearchService {
      * @return 유사한 상품 리스트
      */
     public List<Product> vectorSearch(String queryText, int topK) {
+        return vectorSearch(queryText, topK, ProductFilter.NONE);
+    }
+
+    /**
+     * 키워드(BM25) 검색
+     * @param queryText 검색어
+     * @param topK 반환할 결과 수
+     * @return 상품 리스트
+     */
+    public List<Product> textSearch(String queryText, int topK) {
+        return textSearch(queryText, topK, ProductFilter.NONE);
+    }
+
+    /**
+     * 여러 검색어 벡터 검색 (배치)
+     * 임베딩은 한 번의 배치 호출로, kNN은 한 번의 msearch로 실행 (검색 결과 캐시 적중분은 msearch에서 제외)
+     * 필터는 모든 검색어의 kNN filter 절로 전달되고, 결과 캐시도 같은 필터 범위 안에서만 재사용
+     * 실패는 해당 검색어의 error로만 표시하고 전체 배치를 실패시키지 않음
+     * - 배치 임베딩 실패: 검색어별 임베딩으로 재시도, 그래도 실패한 검색어만 error
+     * - msearch 요청 자체 실패(전송 오류 등): 검색할 검색어 모두 error, 하위 검색 실패: 해당 검색어만 error
+     * @param queries 검색어 목록
+     * @param topK 검색어별 반환할 결과 수
+     * @param filter 상품 필터 (null이면 필터 없음)
+     * @return 입력 순서와 같은 순서의 검색 결과
+     */
+    public List<BatchResult> vectorSearchBatch(List<String> queries, int topK, ProductFilter filter) {
+        ProductFilter normalized = normalizeFilter(filter);
+        BatchResult[] results = new BatchResult[queries.size()];
+        List<float[]> queryVectors = queryVectors(queries, results);
+
+        List<Integer> pending = new ArrayList<>();
+        List<Long> generations = new ArrayList<>();
+        for (int i = 0; i < queryVectors.size(); i++) {
+            if (results[i] != null) {
+                continue;   // 임베딩 실패
+            }
+            SemanticResultCache.Lookup<Product> cached = resultCache.lookup(queryVectors.get(i), topK, normalized);
+            stageMetrics.recordCache("semantic", INDEX_NAME, cached.results() != null);
+            if (cached.results() != null) {
+                results[i] = new BatchResult(cached.results(), null);
+            } else {
+                pending.add(i);
+                generations.add(cached.generation());
+            }
+        }
+        RequestTiming.put("semanticCacheHits",
+                Arrays.stream(results).filter(result -> result != null && result.error() == null).count());
+
+        if (pending.isEmpty()) {
+            return Arrays.asList(results);
+        }
+
+        List<Query> filters = filterQueries(normalized);
+        List<KnnSearchBody> searchBodies = new ArrayList<>(pending.size());
+        for (int i : pending) {
+            searchBodies.add(knnRequest(queryVectors.get(i), topK, filters));
+        }
+
+        MsearchResponse<Product> response;
         try {
-            // 1. 검색어를 벡터로 변환
-            List<Float> queryVector = embeddingService.getVector(queryText);
-
-            // 2. Elasticsearch kNN 검색
-            SearchRequest searchRequest = SearchRequest.of(s -> s
-                    .index(INDEX_NAME)
-                    .knn(k -> k
-                            .field(VECTOR_FIELD)
-                            .queryVector(queryVector)
-                            .k(topK)
-                            .numCandidates(100)
-                    )
-                    .source(src -> src.filter(f -> f
-                            .includes("id", "name", "description", "price", "category", "stock")
-                    ))
-            );
-
-            // 3. 검색 실행
-            SearchResponse<Product> response = elasticsearchClient.search(searchRequest, Product.class);
-
-            // 4. 결과 반환 (유사도 점수 포함)
-            return response.hits().hits().stream()
-                    .map(hit -> {
-                        Product product = hit.source();
-                        if (product != null && hit.score() != null) {
-                            product.setScore(hit.score());
-                        }
-                        return product;
-                    })
-                    .collect(Collectors.toList());
+            response = stageMetrics.timeChecked(StageMetrics.KNN_BATCH, INDEX_NAME, "elasticsearch",
+                    () -> knnSearchClient.msearch(INDEX_NAME, searchBodies, Product.class));
+        } catch (Exception e) {
+            log.warn("배치 벡터 검색 요청 실패 ({}건): {}", pending.size(), e.getMessage());
+            for (int i : pending) {
+                results[i] = new BatchResult(List.of(), "배치 벡터 검색 실패: " + e.getMessage());
+            }
+            return Arrays.asList(results);
+        }
+        RequestTiming.addMillis("esTookMs", response.took());
+
+        List<MultiSearchResponseItem<Product>> items = response.responses();
+        for (int j = 0; j < pending.size(); j++) {
+            int i = pending.get(j);
+            MultiSearchResponseItem<Product> item = items.get(j);
+            if (item.isFailure()) {
+                results[i] = new BatchResult(List.of(), "msearch 하위 검색 실패: " + item.failure().error().reason());
+            } else {
+                List<Product> products = toDocuments(item.result().hits().hits());
+                resultCache.put(queryVectors.get(i), topK, normalized, products, generations.get(j));
+                results[i] = new BatchResult(products, null);
+            }
+        }
+
+        return Arrays.asList(results);
+    }
 
+    /**
+     * 검색어 벡터 (배치 임베딩 실패 시 검색어별 임베딩으로 재시도)
+     * 검색어별로도 실패한 위치는 results에 error를 채우고 벡터는 null
+     */
+    private List<float[]> queryVectors(List<String> queries, BatchResult[] results) {
+        try {
+            return embeddingService.getQueryVectors(queries);
         } catch (Exception e) {
-            throw new RuntimeException("벡터 검색 중 오류 발생: " + e.getMessage(), e);
+            log.warn("배치 임베딩 실패, 검색어별 임베딩으로 재시도 ({}건): {}", queries.size(), e.getMessage());
         }
+
+        List<float[]> vectors = new ArrayList<>(queries.size());
+        for (int i = 0; i < queries.size(); i++) {
+            try {
+                vectors.add(embeddingService.getVector(queries.get(i)));
+            } catch (Exception e) {
+                vectors.add(null);
+                results[i] = new BatchResult(List.of(), "임베딩 실패: " + e.getMessage());
+            }
+        }
+        return vectors;
+    }
+
+    @Override
+    protected ProductFilter normalizeFilter(ProductFilter filter) {
+        return filter != null ? filter : ProductFilter.NONE;
     }
 
     /**
-     * 벡터 기반 검색 (기본 5개 결과)
-     * @param queryText 검색어
-     * @return 유사한 상품 리스트
+     * 상품 필터 → filter 절 쿼리 목록 (kNN filter / bool filter 공용, 점수에 영향 없음)
      */
-    public List<Product> vectorSearch(String queryText) {
-        return vectorSearch(queryText, 5);
+    @Override
+    protected List<Query> filterQueries(ProductFilter filter) {
+        List<Query> filters = new ArrayList<>();
+        if (filter == null || filter.isEmpty()) {
+            return filters;
+        }
+
+        if (filter.category() != null) {
+            filters.add(Query.of(q -> q.term(t -> t.field(CATEGORY_FIELD).value(filter.category()))));
+        }
+        if (filter.minPrice() != null || filter.maxPrice() != null) {
+            filters.add(Query.of(q -> q.range(r -> {
+                r.field(PRICE_FIELD);
+                if (filter.minPrice() != null) {
+                    r.gte(JsonData.of(filter.minPrice()));
+                }
+                if (filter.maxPrice() != null) {
+                    r.lte(JsonData.of(filter.maxPrice()));
+                }
+                return r;
+            })));
+        }
+        if (filter.inStockOnly()) {
+            filters.add(Query.of(q -> q.range(r -> r.field(STOCK_FIELD).gt(JsonData.of(0)))));
+        }
+        return filters;
     }
-}
 
+    /**
+     * 배치 검색의 검색어별 결과 (실패 시 products는 비어 있고 error에 사유)
+     */
+    public record BatchResult(List<Product> products, String error) {
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.elasticsearch.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SearchMode 문자열 변환 테스트
+ */
+class SearchModeTest {
+
+    @Test
+    void missingValueDefaultsToVector() {
+        assertThat(SearchMode.from(null)).isEqualTo(SearchMode.VECTOR);
+        assertThat(SearchMode.from("  ")).isEqualTo(SearchMode.VECTOR);
+    }
+
+    @Test
+    void namesAndAliasesAreCaseInsensitive() {
+        assertThat(SearchMode.from("text")).isEqualTo(SearchMode.TEXT);
+        assertThat(SearchMode.from(" Hybrid-RRF ")).isEqualTo(SearchMode.HYBRID_RRF);
+        assertThat(SearchMode.from("hybrid")).isEqualTo(SearchMode.HYBRID_LINEAR);
+        assertThat(SearchMode.from("rrf")).isEqualTo(SearchMode.HYBRID_RRF);
+    }
+
+    @Test
+    void unknownValueIsRejected() {
+        assertThatThrownBy(() -> SearchMode.from("hybird"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("hybird");
+    }
+
+    @Test
+    void parsingIgnoresDefaultLocale() {
+        Locale original = Locale.getDefault();
+        try {
+            // 터키어 로캘에서 "i".toUpperCase()는 "İ" → Locale.ROOT로 변환해야 일치
+            Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+            assertThat(SearchMode.from("hybrid_linear")).isEqualTo(SearchMode.HYBRID_LINEAR);
+            assertThat(SearchMode.from("vector")).isEqualTo(SearchMode.VECTOR);
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.entity.ChatHistory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 히스토리 버퍼 저장 / 조회 처리량 벤치마크 (./gradlew benchmark)
+ * ChatHistoryService와 같이 사용자 버킷 compute 안에서 저장하고, 조회는 compute 밖에서 실행
+ * - oneUser:   모든 스레드가 같은 사용자에 저장 (최악의 경합)
+ * - manyUsers: 스레드별로 다른 사용자에 저장 (일반적인 경우)
+ * 스레드 수별(1 ~ 128) 저장 1건당 시간을 출력
+ */
+@Tag("benchmark")
+class BoundedHistoryBufferBenchmark {
+
+    private static final int CAPACITY = 100;
+    private static final int OPS_PER_THREAD = 200_000;
+    private static final int READ_EVERY = 10;
+    private static final ChatHistory HISTORY = BoundedHistoryBufferTest.history("bench");
+
+    @Test
+    void appendAndSnapshotThroughput() throws Exception {
+        for (int threads : new int[]{1, 4, 16, 64, 128}) {
+            run("oneUser", threads, false);   // 워밍업
+            run("oneUser", threads, true);
+            run("manyUsers", threads, true);
+        }
+    }
+
+    private void run(String scenario, int threads, boolean print) throws Exception {
+        Map<String, BoundedHistoryBuffer> store = new ConcurrentHashMap<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String userId = "oneUser".equals(scenario) ? "user" : "user-" + t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        store.compute(userId, (key, buffer) -> {
+                            BoundedHistoryBuffer target = buffer != null ? buffer : new BoundedHistoryBuffer(CAPACITY);
+                            target.append(HISTORY, 256);
+                            return target;
+                        });
+                        if (i % READ_EVERY == 0) {
+                            store.get(userId).snapshot(10);
+                        }
+                    }
+                    return System.nanoTime() - begin;
+                }));
+            }
+
+            start.countDown();
+            long slowest = 0;
+            for (Future<Long> result : results) {
+                slowest = Math.max(slowest, result.get(5, TimeUnit.MINUTES));
+            }
+
+            for (BoundedHistoryBuffer buffer : store.values()) {
+                assertThat(buffer.size()).isEqualTo(CAPACITY);
+                assertThat(buffer.bytes()).isEqualTo(256L * CAPACITY);
+            }
+            if (print) {
+                System.out.printf("%-10s threads=%2d  %,6d ns/append (저장 %d건당 스냅샷 1회 포함)%n",
+                        scenario, threads, slowest / OPS_PER_THREAD, READ_EVERY);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
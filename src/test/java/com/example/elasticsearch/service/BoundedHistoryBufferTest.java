@@ -0,0 +1,138 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.entity.ChatHistory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 사용자별 고정 크기 히스토리 버퍼 밀어내기 / 크기 / 바이트 집계 테스트
+ */
+class BoundedHistoryBufferTest {
+
+    @Test
+    void keepsInsertionOrderBelowCapacity() {
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(3);
+
+        assertThat(buffer.append(history("a"), 10)).isEqualTo(10);
+        assertThat(buffer.append(history("b"), 20)).isEqualTo(20);
+
+        assertThat(ids(buffer.snapshot())).containsExactly("a", "b");
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.bytes()).isEqualTo(30);
+    }
+
+    @Test
+    void wrapsAroundByDroppingOldest() {
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(3);
+        buffer.append(history("a"), 10);
+        buffer.append(history("b"), 20);
+        buffer.append(history("c"), 30);
+
+        // 가득 찬 상태: 추가분 - 밀려난 a
+        assertThat(buffer.append(history("d"), 40)).isEqualTo(40 - 10);
+        assertThat(buffer.append(history("e"), 5)).isEqualTo(5 - 20);
+
+        assertThat(ids(buffer.snapshot())).containsExactly("c", "d", "e");
+        assertThat(buffer.size()).isEqualTo(3);
+        assertThat(buffer.bytes()).isEqualTo(30 + 40 + 5);
+    }
+
+    @Test
+    void snapshotReturnsMostRecentLimitOldestFirst() {
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(5);
+        for (String id : List.of("a", "b", "c", "d", "e", "f", "g")) {
+            buffer.append(history(id), 1);
+        }
+
+        assertThat(ids(buffer.snapshot(2))).containsExactly("f", "g");
+        assertThat(ids(buffer.snapshot(100))).containsExactly("c", "d", "e", "f", "g");
+        assertThat(buffer.snapshot(0)).isEmpty();
+        assertThat(buffer.snapshot(-1)).isEmpty();
+    }
+
+    @Test
+    void snapshotIsDetachedFromLaterWrites() {
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(2);
+        buffer.append(history("a"), 1);
+        List<ChatHistory> snapshot = buffer.snapshot();
+
+        buffer.append(history("b"), 1);
+        buffer.append(history("c"), 1);
+
+        assertThat(ids(snapshot)).containsExactly("a");
+    }
+
+    @Test
+    void concurrentWritesNeverOvercountSizeOrBytes() throws Exception {
+        int capacity = 16;
+        int writers = 8;
+        int perWriter = 5_000;
+        BoundedHistoryBuffer buffer = new BoundedHistoryBuffer(capacity);
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+
+        try {
+            List<Future<Long>> deltas = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                deltas.add(pool.submit(() -> {
+                    start.await();
+                    long sum = 0;
+                    for (int i = 0; i < perWriter; i++) {
+                        sum += buffer.append(history(writer + "-" + i), 1 + (i % 7));
+                    }
+                    return sum;
+                }));
+            }
+            // 저장과 동시에 조회해도 capacity를 넘는 스냅샷이 나오지 않음
+            Future<?> reader = pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    assertThat(buffer.snapshot().size()).isLessThanOrEqualTo(capacity);
+                    assertThat(buffer.size()).isLessThanOrEqualTo(capacity);
+                }
+                return null;
+            });
+
+            start.countDown();
+            long totalDelta = 0;
+            for (Future<Long> delta : deltas) {
+                totalDelta += delta.get(30, TimeUnit.SECONDS);
+            }
+            reader.get(30, TimeUnit.SECONDS);
+
+            // 반환한 변화량의 합 = 최종 보관 바이트 (밀려난 항목이 정확히 한 번씩 차감됨)
+            assertThat(buffer.size()).isEqualTo(capacity);
+            assertThat(buffer.snapshot()).hasSize(capacity);
+            assertThat(buffer.bytes()).isEqualTo(totalDelta);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new BoundedHistoryBuffer(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    static ChatHistory history(String id) {
+        ChatHistory history = new ChatHistory("질문 " + id, "답변 " + id, 0, 1L);
+        history.setId(id);
+        return history;
+    }
+
+    private static List<String> ids(List<ChatHistory> histories) {
+        return histories.stream().map(ChatHistory::getId).toList();
+    }
+}
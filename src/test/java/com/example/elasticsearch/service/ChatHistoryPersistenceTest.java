@@ -0,0 +1,151 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import com.example.elasticsearch.entity.ChatHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.InstanceOfAssertFactories.MAP;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * ChatHistoryPersistence 저장 / 삭제 / flush 교차 실행 테스트 (ES 클라이언트는 mock, flush 스레드 없이 직접 flush)
+ */
+class ChatHistoryPersistenceTest {
+
+    private ElasticsearchClient client;
+    private ChatHistoryPersistence persistence;
+    private BlockingQueue<ChatHistoryPersistence.Pending> queue;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        client = mock(ElasticsearchClient.class);
+        when(client.bulk(any(BulkRequest.class))).thenReturn(mock(BulkResponse.class));
+
+        persistence = new ChatHistoryPersistence(client);
+        queue = new ArrayBlockingQueue<>(1);
+        ReflectionTestUtils.setField(persistence, "enabled", true);
+        ReflectionTestUtils.setField(persistence, "offerTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(persistence, "writeQueue", queue);
+        ReflectionTestUtils.setField(persistence, "running", true);
+    }
+
+    @Test
+    void enqueueRacingDeleteIsNotIndexedAfterDelete() throws Exception {
+        // 큐를 채워 두어 다음 저장이 세대 번호를 읽은 뒤 offer에서 대기하도록 함
+        assertThat(persistence.enqueue(history("other-1", "other"))).isTrue();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            AtomicReference<Thread> writer = new AtomicReference<>();
+            Future<Boolean> staleEnqueue = pool.submit(() -> {
+                writer.set(Thread.currentThread());
+                return persistence.enqueue(history("stale", "user-1"));
+            });
+            waitUntilState(writer, Thread.State.TIMED_WAITING);
+
+            AtomicReference<Thread> deleter = new AtomicReference<>();
+            Future<?> delete = pool.submit(() -> {
+                deleter.set(Thread.currentThread());
+                persistence.deleteByUser("user-1");
+            });
+            // 진행 중인 저장이 끝날 때까지 삭제 표시 / 큐 정리를 미룸
+            waitUntilState(deleter, Thread.State.WAITING);
+            assertThat(delete.isDone()).isFalse();
+
+            // flush 스레드가 큐에서 꺼내는 것과 같음 → 대기 중이던 저장이 들어가고 삭제가 이를 정리
+            ChatHistoryPersistence.Pending taken = queue.poll();
+            assertThat(staleEnqueue.get(5, TimeUnit.SECONDS)).isTrue();
+            delete.get(5, TimeUnit.SECONDS);
+            assertThat(queue).isEmpty();
+
+            // 꺼낸 배치 기록 후 삭제 이후 저장은 정상 색인
+            persistence.writeBatch(List.of(taken));
+            persistence.enqueue(history("fresh", "user-1"));
+            persistence.flushPending();
+
+            assertThat(indexedIds()).containsExactly("other-1", "fresh");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void clearMarkSurvivesUnrelatedBatchesUntilOlderItemsPassed() throws Exception {
+        persistence.deleteByUser("user-1");   // 표시 세대 = 1
+
+        // 삭제 전에 flush 스레드가 꺼낸(세대 0) 다른 사용자 배치가 지나가도 표시 유지
+        persistence.writeBatch(List.of(pending("other-1", "other", 0)));
+        persistence.writeBatch(List.of(pending("stale-1", "user-1", 0), pending("other-2", "other", 1)));
+        persistence.writeBatch(List.of(pending("stale-2", "user-1", 0)));
+
+        // 삭제 이후 세대만 담긴 배치가 지나간 뒤에는 표시 제거
+        persistence.writeBatch(List.of(pending("fresh-1", "user-1", 1)));
+        assertThat(ReflectionTestUtils.getField(persistence, "clearedUsers")).asInstanceOf(MAP).isEmpty();
+
+        assertThat(indexedIds()).containsExactly("other-1", "other-2", "fresh-1");
+        assertThat(persistence.getStats()).containsEntry("discarded", 2L);
+    }
+
+    @Test
+    void deleteDropsQueuedItemsOfThatUserOnly() throws Exception {
+        queue = new ArrayBlockingQueue<>(10);
+        ReflectionTestUtils.setField(persistence, "writeQueue", queue);
+        persistence.enqueue(history("a", "user-1"));
+        persistence.enqueue(history("b", "other"));
+
+        persistence.deleteByUser("user-1");
+        persistence.flushPending();
+
+        assertThat(indexedIds()).containsExactly("b");
+        assertThat(persistence.getStats()).containsEntry("discarded", 1L);
+    }
+
+    private List<String> indexedIds() throws Exception {
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(client, atLeastOnce()).bulk(captor.capture());
+        List<String> ids = new ArrayList<>();
+        for (BulkRequest request : captor.getAllValues()) {
+            request.operations().forEach(op -> ids.add(op.index().id()));
+        }
+        return ids;
+    }
+
+    private static ChatHistoryPersistence.Pending pending(String id, String userId, long generation) {
+        return new ChatHistoryPersistence.Pending(history(id, userId), generation);
+    }
+
+    private static ChatHistory history(String id, String userId) {
+        return new ChatHistory(id, userId, "질문 " + id, "답변 " + id, 0, 1L, LocalDateTime.of(2026, 1, 1, 0, 0));
+    }
+
+    private static void waitUntilState(AtomicReference<Thread> thread, Thread.State state) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != state) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("thread did not reach " + state);
+            }
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.entity.ChatHistory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * ChatHistoryService ES 보충 조회 / 삭제 테스트 (영속화는 mock)
+ */
+class ChatHistoryServiceTest {
+
+    private static final String USER = "user-1";
+
+    private ChatHistoryPersistence persistence;
+    private ChatHistoryService service;
+
+    @BeforeEach
+    void setUp() {
+        persistence = mock(ChatHistoryPersistence.class);
+        service = new ChatHistoryService(persistence);
+        ReflectionTestUtils.setField(service, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(service, "idleTtlMinutes", 60L);
+    }
+
+    @Test
+    void coldUserIsHydratedFromStoreOnce() {
+        when(persistence.findRecent(eq(USER), anyInt())).thenReturn(List.of(history("old-1", 1), history("old-2", 2)));
+
+        assertThat(ids(service.getRecentHistory(USER, 10))).containsExactly("old-1", "old-2");
+
+        // 버퍼 건수(2)가 limit(10)보다 적어도 다시 ES를 조회하지 않음
+        service.save(history("new-1", 3));
+        assertThat(ids(service.getRecentHistory(USER, 10))).containsExactly("old-1", "old-2", "new-1");
+        verify(persistence, times(1)).findRecent(eq(USER), anyInt());
+    }
+
+    @Test
+    void savedBeforeFirstReadIsMergedWithStore() {
+        service.save(history("new-1", 3));
+        when(persistence.findRecent(eq(USER), anyInt())).thenReturn(List.of(history("old-1", 1), history("new-1", 3)));
+
+        assertThat(ids(service.getRecentHistory(USER, 10))).containsExactly("old-1", "new-1");
+        assertThat(ids(service.getRecentHistory(USER, 1))).containsExactly("new-1");
+        verify(persistence, times(1)).findRecent(eq(USER), anyInt());
+    }
+
+    @Test
+    void storeFailureFallsBackToLocalWithoutMarkingHydrated() {
+        service.save(history("new-1", 3));
+        when(persistence.findRecent(eq(USER), anyInt())).thenThrow(new RuntimeException("es down"));
+
+        assertThat(ids(service.getRecentHistory(USER, 10))).containsExactly("new-1");
+        assertThat(ids(service.getRecentHistory(USER, 10))).containsExactly("new-1");
+        verify(persistence, times(2)).findRecent(eq(USER), anyInt());
+    }
+
+    @Test
+    void clearDropsBufferAndNextReadGoesToStore() {
+        when(persistence.findRecent(eq(USER), anyInt())).thenReturn(List.of());
+        service.save(history("new-1", 1));
+        service.getRecentHistory(USER, 10);
+
+        service.clearHistory(USER);
+
+        verify(persistence).deleteByUser(USER);
+        assertThat(service.getRecentHistory(USER, 10)).isEmpty();
+        assertThat(service.getStats().get("totalChats")).isEqualTo(0L);
+        verify(persistence, times(2)).findRecent(eq(USER), anyInt());
+    }
+
+    @Test
+    void clearDropsBufferEvenWhenStoreDeleteFails() {
+        when(persistence.findRecent(eq(USER), anyInt())).thenReturn(List.of());
+        service.save(history("new-1", 1));
+        doThrow(new RuntimeException("es down")).when(persistence).deleteByUser(USER);
+
+        assertThatThrownBy(() -> service.clearHistory(USER)).hasMessage("es down");
+        assertThat(service.getRecentHistory(USER, 10)).isEmpty();
+    }
+
+    @Test
+    void emptyStoreDoesNotCreateBufferForUnknownUser() {
+        when(persistence.findRecent(eq(USER), anyInt())).thenReturn(List.of());
+
+        assertThat(service.getRecentHistory(USER, 10)).isEmpty();
+        assertThat(service.getRecentHistory(USER, 10)).isEmpty();
+        verify(persistence, times(2)).findRecent(eq(USER), anyInt());
+        verify(persistence, never()).deleteByUser(USER);
+    }
+
+    @Test
+    void statsSeparatePersistedUsersFromBufferedUsers() {
+        when(persistence.countUsers()).thenReturn(42L);
+        service.save(history("new-1", 1));
+        service.refreshPersistedUsers();
+
+        assertThat(service.getStats())
+                .containsEntry("totalUsers", 42L)
+                .containsEntry("activeUsers", 1);
+
+        // 갱신 실패 시 직전 값 유지
+        when(persistence.countUsers()).thenThrow(new RuntimeException("es down"));
+        service.refreshPersistedUsers();
+        assertThat(service.getStats()).containsEntry("totalUsers", 42L);
+    }
+
+    @Test
+    void statsNeverQueryStore() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(service.getStats()).containsEntry("totalUsers", null);
+        }
+
+        // 통계 조회는 영속화의 로컬 카운터만 읽고 ES 조회(countUsers / findRecent)는 하지 않음
+        verify(persistence, times(3)).getStats();
+        verifyNoMoreInteractions(persistence);
+    }
+
+    private static ChatHistory history(String id, int minute) {
+        return new ChatHistory(id, USER, "질문 " + id, "답변 " + id, 0, 1L, LocalDateTime.of(2026, 1, 1, 0, minute));
+    }
+
+    private static List<String> ids(List<ChatHistory> histories) {
+        return histories.stream().map(ChatHistory::getId).toList();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.elasticsearch.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EmbeddingCache TTL / 메모리 예산 기반 LRU 제거 테스트
+ */
+class EmbeddingCacheTest {
+
+    // 키 2자 + 4차원 벡터 엔트리 크기 (오버헤드 128 + 2×2 + 4×4)
+    private static final long ENTRY_BYTES = 148;
+
+    private static EmbeddingCache cache(long maxBytes, long ttlMinutes) {
+        EmbeddingCache cache = new EmbeddingCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(cache, "ttlMinutes", ttlMinutes);
+        return cache;
+    }
+
+    private static float[] vector(float value) {
+        return new float[]{value, value, value, value};
+    }
+
+    @Test
+    void normalizeTrimsAndCollapsesWhitespace() {
+        assertThat(EmbeddingCache.normalize("  무선   이어폰\t추천 ")).isEqualTo("무선 이어폰 추천");
+        assertThat(EmbeddingCache.normalize(null)).isEmpty();
+        // NFD로 분해된 한글도 같은 키로
+        assertThat(EmbeddingCache.normalize("\u1100\u1161\u1107\u1161\u11BC")).isEqualTo("가방");
+    }
+
+    @Test
+    void returnsStoredVectorUntilTtlExpires() throws InterruptedException {
+        EmbeddingCache live = cache(1 << 20, 60);
+        live.put("k1", vector(1f));
+        assertThat(live.get("k1")).containsExactly(1f, 1f, 1f, 1f);
+
+        EmbeddingCache expiring = cache(1 << 20, 0);
+        expiring.put("k1", vector(1f));
+        Thread.sleep(5);
+
+        assertThat(expiring.get("k1")).isNull();
+        assertThat(expiring.getStats())
+                .containsEntry("entries", 0)
+                .containsEntry("usedBytes", 0L)
+                .containsEntry("expirations", 1L)
+                .containsEntry("misses", 1L);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedWhenByteBudgetExceeded() {
+        EmbeddingCache cache = cache(ENTRY_BYTES * 2, 60);
+        cache.put("k1", vector(1f));
+        cache.put("k2", vector(2f));
+
+        // k1 조회 → k2가 가장 오래 안 쓰인 엔트리
+        assertThat(cache.get("k1")).isNotNull();
+        cache.put("k3", vector(3f));
+
+        assertThat(cache.get("k2")).isNull();
+        assertThat(cache.get("k1")).isNotNull();
+        assertThat(cache.get("k3")).isNotNull();
+        assertThat(cache.getStats())
+                .containsEntry("entries", 2)
+                .containsEntry("usedBytes", ENTRY_BYTES * 2)
+                .containsEntry("evictions", 1L);
+    }
+
+    @Test
+    void replacingKeyDoesNotDoubleCountBytes() {
+        EmbeddingCache cache = cache(ENTRY_BYTES * 2, 60);
+        cache.put("k1", vector(1f));
+        cache.put("k1", vector(9f));
+        cache.put("k2", vector(2f));
+
+        assertThat(cache.get("k1")).containsExactly(9f, 9f, 9f, 9f);
+        assertThat(cache.getStats())
+                .containsEntry("usedBytes", ENTRY_BYTES * 2)
+                .containsEntry("evictions", 0L);
+    }
+
+    @Test
+    void skipsEntryLargerThanBudget() {
+        EmbeddingCache cache = cache(ENTRY_BYTES - 1, 60);
+        cache.put("k1", vector(1f));
+
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.getStats()).containsEntry("usedBytes", 0L);
+    }
+
+    @Test
+    void disabledCacheStoresNothing() {
+        EmbeddingCache cache = cache(1 << 20, 60);
+        ReflectionTestUtils.setField(cache, "enabled", false);
+        cache.put("k1", vector(1f));
+
+        assertThat(cache.get("k1")).isNull();
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.dto.EmbeddingBatchResponse;
+import com.example.elasticsearch.dto.EmbeddingResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * EmbeddingService 마이크로 배칭 / 종료 / 대기 시간 제한 테스트 (임베딩 API는 mock)
+ */
+class EmbeddingServiceTest {
+
+    private RestTemplate restTemplate;
+    private EmbeddingService embeddingService;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+
+        EmbeddingCache embeddingCache = new EmbeddingCache();
+        ReflectionTestUtils.setField(embeddingCache, "enabled", true);
+        ReflectionTestUtils.setField(embeddingCache, "maxBytes", 1L << 20);
+        ReflectionTestUtils.setField(embeddingCache, "ttlMinutes", 60L);
+
+        embeddingService = new EmbeddingService(restTemplate, embeddingCache, new StageMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(embeddingService, "embeddingApiUrl", "http://embedding");
+        ReflectionTestUtils.setField(embeddingService, "batchEnabled", true);
+        ReflectionTestUtils.setField(embeddingService, "maxBatchSize", 32);
+        ReflectionTestUtils.setField(embeddingService, "maxWaitMs", 50L);
+        ReflectionTestUtils.setField(embeddingService, "dispatchThreads", 2);
+        ReflectionTestUtils.setField(embeddingService, "waitTimeoutMs", 2000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        embeddingService.stopBatching();
+    }
+
+    @Test
+    void concurrentRequestsAreCoalescedIntoOneBatchCall() throws Exception {
+        when(restTemplate.postForObject(endsWith("/embed/batch"), any(), eq(EmbeddingBatchResponse.class)))
+                .thenAnswer(invocation -> batchResponse(invocation.getArgument(1)));
+        // 한 배치에 고유 텍스트가 하나뿐이면 단건 API로 전송
+        when(restTemplate.postForObject(endsWith("/embed"), any(), eq(EmbeddingResponse.class)))
+                .thenAnswer(invocation -> singleResponse(lastDigit(textOf(invocation.getArgument(1)))));
+        embeddingService.startBatching();
+
+        int callers = 8;
+        CountDownLatch ready = new CountDownLatch(callers);
+        ExecutorService pool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<float[]>> futures = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                String text = "질의 " + (i % 4);
+                futures.add(pool.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return embeddingService.getVector(text);
+                }));
+            }
+
+            for (int i = 0; i < callers; i++) {
+                assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).containsExactly(i % 4);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // 8건 요청 → 고유 텍스트 4건, 배치 창(50ms) 안에서 대부분 한 번에 전송
+        verify(restTemplate, atMost(2)).postForObject(endsWith("/embed/batch"), any(), eq(EmbeddingBatchResponse.class));
+    }
+
+    @Test
+    void cachedVectorSkipsSidecar() {
+        when(restTemplate.postForObject(endsWith("/embed"), any(), eq(EmbeddingResponse.class)))
+                .thenAnswer(invocation -> singleResponse(7f));
+        embeddingService.startBatching();
+
+        assertThat(embeddingService.getVector("  가방  ")).containsExactly(7f);
+        assertThat(embeddingService.getVectorAsync("가방").join()).containsExactly(7f);
+
+        verify(restTemplate, atMost(1)).postForObject(endsWith("/embed"), any(), eq(EmbeddingResponse.class));
+    }
+
+    @Test
+    void requestsAfterShutdownFailInsteadOfHanging() {
+        embeddingService.startBatching();
+        embeddingService.stopBatching();
+
+        assertThatThrownBy(() -> embeddingService.getVector("종료 후 요청"))
+                .isInstanceOf(IllegalStateException.class);
+
+        CompletableFuture<float[]> future = embeddingService.getVectorAsync("종료 후 비동기 요청");
+        assertThat(future).isCompletedExceptionally();
+
+        verify(restTemplate, never()).postForObject(any(String.class), any(), eq(EmbeddingBatchResponse.class));
+        verify(restTemplate, never()).postForObject(any(String.class), any(), eq(EmbeddingResponse.class));
+    }
+
+    @Test
+    void slowSidecarIsBoundedByWaitTimeout() {
+        ReflectionTestUtils.setField(embeddingService, "waitTimeoutMs", 200L);
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.postForObject(endsWith("/embed"), any(), eq(EmbeddingResponse.class)))
+                .thenAnswer(invocation -> {
+                    release.await(5, TimeUnit.SECONDS);
+                    return singleResponse(1f);
+                });
+        embeddingService.startBatching();
+
+        try {
+            assertThatThrownBy(() -> embeddingService.getVector("느린 요청"))
+                    .hasMessageContaining("대기 시간 초과")
+                    .hasCauseInstanceOf(TimeoutException.class);
+
+            CompletableFuture<float[]> future = embeddingService.getVectorAsync("느린 비동기 요청");
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(TimeoutException.class);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EmbeddingBatchResponse batchResponse(HttpEntity<?> request) {
+        List<String> texts = ((Map<String, List<String>>) request.getBody()).get("texts");
+        List<float[]> vectors = texts.stream()
+                .map(text -> new float[]{lastDigit(text)})
+                .toList();
+
+        EmbeddingBatchResponse response = new EmbeddingBatchResponse();
+        response.setVectors(vectors);
+        response.setCount(vectors.size());
+        response.setDimensions(1);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String textOf(HttpEntity<?> request) {
+        return ((Map<String, String>) request.getBody()).get("text");
+    }
+
+    private static float lastDigit(String text) {
+        return Character.digit(text.charAt(text.length() - 1), 10);
+    }
+
+    private static EmbeddingResponse singleResponse(float value) {
+        EmbeddingResponse response = new EmbeddingResponse();
+        response.setVector(new float[]{value});
+        response.setDimensions(1);
+        return response;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.elasticsearch.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * KnnCandidatePolicy 후보 수 계산 / 범위 제한 / 설정 검증 테스트
+ */
+class KnnCandidatePolicyTest {
+
+    private final KnnCandidatePolicy policy = new KnnCandidatePolicy(15, 40, 1000);
+
+    @Test
+    void smallKIsRaisedToFloor() {
+        // ceil(1 × 15) = 15 < floor
+        assertThat(policy.numCandidates(1)).isEqualTo(40);
+        assertThat(policy.numCandidates(2)).isEqualTo(40);
+    }
+
+    @Test
+    void mediumKScalesWithRatio() {
+        assertThat(policy.numCandidates(5)).isEqualTo(75);
+        assertThat(policy.numCandidates(10)).isEqualTo(150);
+    }
+
+    @Test
+    void ratioIsRoundedUp() {
+        KnnCandidatePolicy fractional = new KnnCandidatePolicy(1.5, 1, 1000);
+
+        assertThat(fractional.numCandidates(3)).isEqualTo(5);
+    }
+
+    @Test
+    void largeKIsCappedAtCeilingButNeverBelowK() {
+        assertThat(policy.numCandidates(100)).isEqualTo(1000);
+        // ceiling보다 큰 k는 k 그대로 (ES 제약: num_candidates ≥ k)
+        assertThat(policy.numCandidates(2000)).isEqualTo(2000);
+        assertThat(policy.numCandidates(KnnCandidatePolicy.ES_MAX_CANDIDATES))
+                .isEqualTo(KnnCandidatePolicy.ES_MAX_CANDIDATES);
+    }
+
+    @Test
+    void ceilingAboveEsLimitIsClamped() {
+        KnnCandidatePolicy wide = new KnnCandidatePolicy(100, 10, 50_000);
+
+        assertThat(wide.numCandidates(500)).isEqualTo(KnnCandidatePolicy.ES_MAX_CANDIDATES);
+    }
+
+    @Test
+    void kOutsideEsRangeIsRejected() {
+        assertThatThrownBy(() -> policy.numCandidates(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> policy.numCandidates(KnnCandidatePolicy.ES_MAX_CANDIDATES + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void invalidSettingsAreRejected() {
+        assertThatThrownBy(() -> new KnnCandidatePolicy(0.5, 40, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KnnCandidatePolicy(15, 0, 1000)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new KnnCandidatePolicy(15, 100, 50)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void topKValidationMatchesEsLimit() {
+        assertThat(AbstractVectorSearchService.isValidTopK(1)).isTrue();
+        assertThat(AbstractVectorSearchService.isValidTopK(AbstractVectorSearchService.MAX_TOP_K)).isTrue();
+        assertThat(AbstractVectorSearchService.isValidTopK(0)).isFalse();
+        assertThat(AbstractVectorSearchService.isValidTopK(AbstractVectorSearchService.MAX_TOP_K + 1)).isFalse();
+        assertThat(AbstractVectorSearchService.isValidTopK(null)).isFalse();
+    }
+}
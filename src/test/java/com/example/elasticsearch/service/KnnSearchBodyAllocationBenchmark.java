@@ -0,0 +1,110 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Random;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * kNN 요청 직렬화 할당량 벤치마크 (./gradlew benchmark)
+ * - boxedList: 기존 방식 (float[] → List&lt;Float&gt; 복사 후 Java Client 직렬화)
+ * - listView:  float[]를 감싼 List&lt;Float&gt; 뷰 (복사는 없지만 직렬화 시 원소마다 박싱)
+ * - knnBody:   KnnSearchBody (float 그대로 기록)
+ * 요청 1건당 할당 바이트와 본문 크기를 출력
+ */
+@Tag("benchmark")
+class KnnSearchBodyAllocationBenchmark {
+
+    private static final int DIMENSIONS = 768;
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+    private static final SourceConfig SOURCE = SourceConfig.of(s -> s.filter(f -> f.includes("id", "name")));
+
+    private final JsonpMapper mapper = new JacksonJsonpMapper();
+
+    @Test
+    void compareSerializationAllocation() {
+        float[] vector = new float[DIMENSIONS];
+        Random random = new Random(42);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = random.nextFloat() * 2 - 1;
+        }
+
+        Result boxedList = measure("boxedList", () -> typedRequest(boxed(vector)));
+        Result listView = measure("listView", () -> typedRequest(new FloatListView(vector)));
+        Result knnBody = measure("knnBody", () -> KnnSearchBody.knn("name_vector", vector, 10, 150, List.of(), SOURCE));
+
+        // float 표기가 double 표기보다 짧음 (할당량은 JIT 상태에 따라 달라지므로 출력만)
+        assertThat(knnBody.payloadBytes).isLessThan(listView.payloadBytes);
+        assertThat(listView.payloadBytes).isEqualTo(boxedList.payloadBytes);
+    }
+
+    private Result measure(String name, Supplier<JsonpSerializable> request) {
+        for (int i = 0; i < WARMUP; i++) {
+            KnnSearchBodyTest.toJson(request.get(), mapper);
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int payloadBytes = 0;
+        long startBytes = threads.getCurrentThreadAllocatedBytes();
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            payloadBytes = KnnSearchBodyTest.toJson(request.get(), mapper).length();
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long allocated = threads.getCurrentThreadAllocatedBytes() - startBytes;
+
+        Result result = new Result(allocated / ITERATIONS, payloadBytes);
+        System.out.printf("%-10s alloc=%,8d B/op  payload=%,6d B  time=%,6d ns/op%n",
+                name, result.allocatedBytesPerOp, result.payloadBytes, elapsedNanos / ITERATIONS);
+        return result;
+    }
+
+    private static SearchRequest typedRequest(List<Float> queryVector) {
+        return SearchRequest.of(s -> s
+                .knn(k -> k.field("name_vector").queryVector(queryVector).k(10).numCandidates(150))
+                .source(SOURCE)
+        );
+    }
+
+    private static List<Float> boxed(float[] vector) {
+        Float[] values = new Float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            values[i] = vector[i];
+        }
+        return List.of(values);
+    }
+
+    private record Result(long allocatedBytesPerOp, int payloadBytes) {
+    }
+
+    private static final class FloatListView extends AbstractList<Float> implements RandomAccess {
+        private final float[] values;
+
+        FloatListView(float[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public Float get(int index) {
+            return values[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.SourceConfig;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.json.JsonpSerializable;
+import co.elastic.clients.json.jackson.JacksonJsonpMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.json.stream.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * KnnSearchBody 직렬화 테스트 (float 그대로 기록, 필터 / 하이브리드 쿼리 / _source)
+ */
+class KnnSearchBodyTest {
+
+    private static final SourceConfig SOURCE = SourceConfig.of(s -> s.filter(f -> f.includes("id", "name")));
+
+    private final JsonpMapper mapper = new JacksonJsonpMapper();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static String toJson(JsonpSerializable body, JsonpMapper mapper) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonGenerator generator = mapper.jsonProvider().createGenerator(out);
+        body.serialize(generator, mapper);
+        generator.close();
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void writesFloatVectorWithoutDoubleWidening() throws Exception {
+        float[] vector = {0.1f, -0.25f, 1e-7f, 0.3333333f};
+        String json = toJson(KnnSearchBody.knn("name_vector", vector, 20, 300, List.of(), SOURCE), mapper);
+
+        // double로 기록하면 0.10000000149011612
+        assertThat(json).contains("\"query_vector\":[0.1,-0.25,1.0E-7,0.3333333]");
+
+        JsonNode root = objectMapper.readTree(json);
+        JsonNode knn = root.get("knn");
+        assertThat(knn.get("field").asText()).isEqualTo("name_vector");
+        for (int i = 0; i < vector.length; i++) {
+            assertThat(knn.get("query_vector").get(i).floatValue()).isEqualTo(vector[i]);
+        }
+        assertThat(knn.get("k").asInt()).isEqualTo(20);
+        assertThat(knn.get("num_candidates").asInt()).isEqualTo(300);
+        assertThat(knn.has("filter")).isFalse();
+        assertThat(knn.has("boost")).isFalse();
+
+        // 기본 size(10)보다 큰 k도 모두 반환
+        assertThat(root.get("size").asInt()).isEqualTo(20);
+        assertThat(root.has("query")).isFalse();
+        assertThat(root.get("_source").get("includes")).hasSize(2);
+    }
+
+    @Test
+    void writesFiltersAndHybridQuery() throws Exception {
+        Query filter = Query.of(q -> q.term(t -> t.field("use_yn").value("Y")));
+        Query text = Query.of(q -> q.multiMatch(m -> m.query("반품 방법").fields("csasi_name^3", "full_content")));
+
+        KnnSearchBody body = KnnSearchBody.knn("content_vector", new float[]{1f, 0f}, 5, 50, List.of(filter), SOURCE)
+                .withQuery(text, 0.7f);
+        JsonNode root = objectMapper.readTree(toJson(body, mapper));
+
+        assertThat(root.get("query").get("multi_match").get("query").asText()).isEqualTo("반품 방법");
+        JsonNode knn = root.get("knn");
+        assertThat(knn.get("filter")).hasSize(1);
+        assertThat(knn.get("filter").get(0).get("term").get("use_yn").get("value").asText()).isEqualTo("Y");
+        assertThat(knn.get("boost").asDouble()).isCloseTo(0.7, within(1e-6));
+        assertThat(root.get("size").asInt()).isEqualTo(5);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Reciprocal Rank Fusion 순위 / 점수 테스트
+ */
+class RankFusionTest {
+
+    private static final int RANK_CONSTANT = 60;
+
+    @Test
+    void documentsRankedByBothSearchesComeFirst() {
+        Doc a = new Doc("a");
+        Doc b = new Doc("b");
+        Doc c = new Doc("c");
+        Doc d = new Doc("d");
+
+        List<Doc> fused = RankFusion.reciprocalRank(List.of(
+                hits(a, b, c),      // BM25
+                hits(c, a, d)       // kNN
+        ), RANK_CONSTANT, 10, Doc::setScore);
+
+        // a: 1/61 + 1/62, c: 1/63 + 1/61, b: 1/62, d: 1/63
+        assertThat(fused).extracting(doc -> doc.id).containsExactly("a", "c", "b", "d");
+        assertThat(a.score).isCloseTo(1.0 / 61 + 1.0 / 62, within(1e-12));
+        assertThat(c.score).isCloseTo(1.0 / 61 + 1.0 / 63, within(1e-12));
+        assertThat(b.score).isCloseTo(1.0 / 62, within(1e-12));
+        assertThat(d.score).isCloseTo(1.0 / 63, within(1e-12));
+    }
+
+    @Test
+    void truncatesToTopK() {
+        Doc a = new Doc("a");
+        Doc b = new Doc("b");
+        Doc c = new Doc("c");
+
+        List<Doc> fused = RankFusion.reciprocalRank(List.of(hits(a, b, c), hits(b, c, a)), RANK_CONSTANT, 2, Doc::setScore);
+
+        // a: 1/61 + 1/63, b: 1/62 + 1/61, c: 1/63 + 1/62
+        assertThat(fused).extracting(doc -> doc.id).containsExactly("b", "a");
+    }
+
+    @Test
+    void tiesKeepFirstSeenOrder() {
+        Doc x = new Doc("x");
+        Doc y = new Doc("y");
+
+        List<Doc> fused = RankFusion.reciprocalRank(List.of(hits(x), hits(y)), RANK_CONSTANT, 10, Doc::setScore);
+
+        assertThat(fused).extracting(doc -> doc.id).containsExactly("x", "y");
+        assertThat(x.score).isEqualTo(y.score);
+    }
+
+    @Test
+    void skipsHitsWithoutSourceAndEmptyRankings() {
+        Doc a = new Doc("a");
+        List<Hit<Doc>> withMissingSource = new ArrayList<>(hits(a));
+        withMissingSource.add(0, Hit.of(h -> h.index("test").id("missing")));
+
+        List<Doc> fused = RankFusion.reciprocalRank(List.of(withMissingSource, List.of()), RANK_CONSTANT, 10, Doc::setScore);
+
+        // 순위는 원래 위치 기준 (source 없는 hit가 1위 자리를 차지)
+        assertThat(fused).containsExactly(a);
+        assertThat(a.score).isCloseTo(1.0 / 62, within(1e-12));
+    }
+
+    private static List<Hit<Doc>> hits(Doc... docs) {
+        List<Hit<Doc>> hits = new ArrayList<>();
+        for (Doc doc : docs) {
+            hits.add(Hit.of(h -> h.index("test").id(doc.id).source(doc)));
+        }
+        return hits;
+    }
+
+    private static final class Doc {
+        private final String id;
+        private Double score;
+
+        Doc(String id) {
+            this.id = id;
+        }
+
+        void setScore(Double score) {
+            this.score = score;
+        }
+    }
+}
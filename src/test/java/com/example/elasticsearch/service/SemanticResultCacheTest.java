@@ -0,0 +1,146 @@
+package com.example.elasticsearch.service;
+
+import com.example.elasticsearch.dto.ProductFilter;
+import com.example.elasticsearch.entity.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SemanticResultCache 유사도 기준 / 무효화 / 범위 / 복사 테스트
+ */
+class SemanticResultCacheTest {
+
+    private static final double THRESHOLD = 0.95;
+
+    private final SemanticResultCache<Product> cache = new SemanticResultCache<>(true, 8, THRESHOLD, 60, Product::copy);
+
+    @Test
+    void reusesResultsAboveThresholdOnly() {
+        float[] stored = {1f, 0f, 0f};
+        put(cache, stored, 5, ProductFilter.NONE, products("a", "b"));
+
+        // cos = 0.99 → 적중 (크기가 달라도 정규화 후 비교)
+        assertThat(ids(cache.lookup(new float[]{9.9f, 1.4f, 0f}, 5, ProductFilter.NONE).results()))
+                .containsExactly("a", "b");
+        // cos ≈ 0.89 → 미적중
+        assertThat(cache.lookup(new float[]{1f, 0.5f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+        // 직교 벡터 → 미적중
+        assertThat(cache.lookup(new float[]{0f, 1f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+    }
+
+    @Test
+    void servesSmallerTopKButNotLarger() {
+        put(cache, new float[]{1f, 0f}, 3, ProductFilter.NONE, products("a", "b", "c"));
+
+        assertThat(ids(cache.lookup(new float[]{1f, 0f}, 2, ProductFilter.NONE).results())).containsExactly("a", "b");
+        assertThat(cache.lookup(new float[]{1f, 0f}, 4, ProductFilter.NONE).results()).isNull();
+    }
+
+    @Test
+    void reusesOnlyWithinSameScope() {
+        ProductFilter audio = ProductFilter.of("오디오", null, null, false);
+        put(cache, new float[]{1f, 0f}, 5, audio, products("a"));
+
+        assertThat(ids(cache.lookup(new float[]{1f, 0f}, 5, ProductFilter.of("오디오", null, null, false)).results()))
+                .containsExactly("a");
+        assertThat(cache.lookup(new float[]{1f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+        assertThat(cache.lookup(new float[]{1f, 0f}, 5, ProductFilter.of("오디오", null, null, true)).results()).isNull();
+    }
+
+    @Test
+    void invalidateClearsEntriesAndDropsResultsFromOlderGeneration() {
+        float[] vector = {1f, 0f};
+        put(cache, vector, 5, ProductFilter.NONE, products("a"));
+
+        // 무효화 전에 시작한 검색 (미적중 → ES 검색 중)
+        SemanticResultCache.Lookup<Product> inFlight = cache.lookup(new float[]{0f, 1f}, 5, ProductFilter.NONE);
+        cache.invalidate();
+
+        assertThat(cache.lookup(vector, 5, ProductFilter.NONE).results()).isNull();
+
+        // 무효화 이전 세대 결과는 저장하지 않음
+        cache.put(new float[]{0f, 1f}, 5, ProductFilter.NONE, products("stale"), inFlight.generation());
+        assertThat(cache.lookup(new float[]{0f, 1f}, 5, ProductFilter.NONE).results()).isNull();
+
+        // 무효화 이후 세대는 저장
+        put(cache, new float[]{0f, 1f}, 5, ProductFilter.NONE, products("fresh"));
+        assertThat(ids(cache.lookup(new float[]{0f, 1f}, 5, ProductFilter.NONE).results())).containsExactly("fresh");
+    }
+
+    @Test
+    void cachedEntitiesAreNotSharedWithCallers() {
+        List<Product> original = products("a");
+        original.get(0).setScore(0.9);
+        put(cache, new float[]{1f, 0f}, 5, ProductFilter.NONE, original);
+
+        // 저장 후 호출자가 원본을 바꿔도 캐시에 영향 없음
+        original.get(0).setScore(0.1);
+        original.get(0).setName("changed");
+
+        List<Product> first = cache.lookup(new float[]{1f, 0f}, 5, ProductFilter.NONE).results();
+        assertThat(first.get(0).getScore()).isEqualTo(0.9);
+        assertThat(first.get(0).getName()).isEqualTo("상품 a");
+
+        // 적중 결과를 바꿔도 다음 적중에 영향 없음
+        first.get(0).setScore(0.5);
+        List<Product> second = cache.lookup(new float[]{1f, 0f}, 5, ProductFilter.NONE).results();
+        assertThat(second.get(0)).isNotSameAs(first.get(0));
+        assertThat(second.get(0).getScore()).isEqualTo(0.9);
+    }
+
+    @Test
+    void expiredEntriesAreIgnored() throws InterruptedException {
+        SemanticResultCache<Product> expiring = new SemanticResultCache<>(true, 8, THRESHOLD, 0, Product::copy);
+        put(expiring, new float[]{1f, 0f}, 5, ProductFilter.NONE, products("a"));
+        Thread.sleep(5);
+
+        assertThat(expiring.lookup(new float[]{1f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+    }
+
+    @Test
+    void oldestEntryIsOverwrittenWhenFull() {
+        SemanticResultCache<Product> small = new SemanticResultCache<>(true, 2, THRESHOLD, 60, Product::copy);
+        put(small, new float[]{1f, 0f, 0f}, 5, ProductFilter.NONE, products("x"));
+        put(small, new float[]{0f, 1f, 0f}, 5, ProductFilter.NONE, products("y"));
+        put(small, new float[]{0f, 0f, 1f}, 5, ProductFilter.NONE, products("z"));
+
+        assertThat(small.lookup(new float[]{1f, 0f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+        assertThat(ids(small.lookup(new float[]{0f, 1f, 0f}, 5, ProductFilter.NONE).results())).containsExactly("y");
+        assertThat(ids(small.lookup(new float[]{0f, 0f, 1f}, 5, ProductFilter.NONE).results())).containsExactly("z");
+    }
+
+    @Test
+    void disabledCacheNeverHits() {
+        SemanticResultCache<Product> disabled = new SemanticResultCache<>(false, 8, THRESHOLD, 60, Product::copy);
+        put(disabled, new float[]{1f, 0f}, 5, ProductFilter.NONE, products("a"));
+
+        assertThat(disabled.lookup(new float[]{1f, 0f}, 5, ProductFilter.NONE).results()).isNull();
+    }
+
+    /**
+     * lookup()으로 받은 generation으로 저장 (실제 검색 흐름과 같은 순서)
+     */
+    private static void put(SemanticResultCache<Product> cache, float[] vector, int topK, ProductFilter scope,
+                            List<Product> results) {
+        long generation = cache.lookup(vector, topK, scope).generation();
+        cache.put(vector, topK, scope, results, generation);
+    }
+
+    private static List<Product> products(String... ids) {
+        List<Product> products = new ArrayList<>();
+        for (String id : ids) {
+            Product product = new Product("상품 " + id, "설명", 1000.0, "오디오", 1);
+            product.setId(id);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
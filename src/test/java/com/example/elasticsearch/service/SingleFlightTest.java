@@ -0,0 +1,227 @@
+package com.example.elasticsearch.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * SingleFlight 합치기 / 실패 전파 / 키 제거 / 우회 테스트
+ */
+class SingleFlightTest {
+
+    @Test
+    void concurrentCallersShareLeaderResult() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("q", () -> {
+                calls.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "result";
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            AtomicReference<Thread> followerThread = new AtomicReference<>();
+            Future<String> follower = pool.submit(() -> {
+                followerThread.set(Thread.currentThread());
+                return flight.execute("q", () -> {
+                    calls.incrementAndGet();
+                    return "own";
+                });
+            });
+            waitUntilParked(followerThread);
+
+            release.countDown();
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(calls).hasValue(1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void leaderFailureIsRethrownToFollowers() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+        IllegalStateException failure = new IllegalStateException("es down");
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<String> leader = pool.submit(() -> flight.execute("q", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw failure;
+            }));
+            assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            AtomicReference<Thread> followerThread = new AtomicReference<>();
+            Future<String> follower = pool.submit(() -> {
+                followerThread.set(Thread.currentThread());
+                return flight.execute("q", () -> "own");
+            });
+            waitUntilParked(followerThread);
+
+            release.countDown();
+            assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCause(failure);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void keyIsRemovedAfterSuccessAndFailure() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>(100);
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(flight.execute("q", calls::incrementAndGet)).isEqualTo(1);
+        assertThat(flight.execute("q", calls::incrementAndGet)).isEqualTo(2);
+
+        assertThatThrownBy(() -> flight.execute("q", () -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+        // 실패한 호출의 키도 제거되어 다음 호출은 새로 실행
+        assertThat(flight.execute("q", calls::incrementAndGet)).isEqualTo(4);
+    }
+
+    @Test
+    void asyncFollowersShareLeaderAndKeyIsRemovedOnCompletion() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = flight.executeAsync("q", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        CompletableFuture<String> follower = flight.executeAsync("q", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("own");
+        });
+        assertThat(calls).hasValue(1);
+
+        pending.complete("result");
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+
+        // 완료 후에는 새로 실행
+        assertThat(flight.executeAsync("q", () -> CompletableFuture.completedFuture("again")).get()).isEqualTo("again");
+    }
+
+    @Test
+    void asyncLeaderFailureReachesFollowersAndFreesKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        IllegalStateException failure = new IllegalStateException("es down");
+
+        CompletableFuture<String> leader = flight.executeAsync("q", () -> pending);
+        CompletableFuture<String> follower = flight.executeAsync("q", () -> CompletableFuture.completedFuture("own"));
+        pending.completeExceptionally(failure);
+
+        assertThatThrownBy(leader::join).hasCause(failure);
+        assertThatThrownBy(follower::join).hasCause(failure);
+        assertThat(flight.executeAsync("q", () -> CompletableFuture.completedFuture("again")).join()).isEqualTo("again");
+    }
+
+    @Test
+    void asyncSupplierThrowingSynchronouslyFreesKey() {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+
+        assertThatThrownBy(() -> flight.executeAsync("q", () -> {
+            throw new IllegalStateException("rejected");
+        })).hasMessage("rejected");
+        assertThat(flight.executeAsync("q", () -> CompletableFuture.completedFuture("again")).join()).isEqualTo("again");
+    }
+
+    @Test
+    void followerCancelDoesNotAffectLeader() {
+        SingleFlight<String, String> flight = new SingleFlight<>(100);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        CompletableFuture<String> leader = flight.executeAsync("q", () -> pending);
+        CompletableFuture<String> follower = flight.executeAsync("q", () -> CompletableFuture.completedFuture("own"));
+        follower.cancel(true);
+        pending.complete("result");
+
+        assertThat(pending.isCancelled()).isFalse();
+        assertThat(leader.join()).isEqualTo("result");
+    }
+
+    @Test
+    void bypassesCoalescingAboveMaxInFlight() {
+        SingleFlight<String, String> flight = new SingleFlight<>(1);
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+
+        flight.executeAsync("a", () -> {
+            calls.incrementAndGet();
+            return pending;
+        });
+        // 진행 중인 키가 이미 maxInFlight개 → 같은 키여도 합치지 않고 바로 실행
+        CompletableFuture<String> sameKey = flight.executeAsync("a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("direct");
+        });
+        String otherKey = flight.execute("b", () -> {
+            calls.incrementAndGet();
+            return "direct-b";
+        });
+
+        assertThat(sameKey.join()).isEqualTo("direct");
+        assertThat(otherKey).isEqualTo("direct-b");
+        assertThat(calls).hasValue(3);
+
+        // 진행 중인 호출이 끝나면 다시 합치기 대상
+        pending.complete("done");
+        CompletableFuture<String> next = new CompletableFuture<>();
+        CompletableFuture<String> first = flight.executeAsync("a", () -> next);
+        CompletableFuture<String> second = flight.executeAsync("a", () -> CompletableFuture.completedFuture("own"));
+        next.complete("shared");
+        assertThat(first.join()).isEqualTo("shared");
+        assertThat(second.join()).isEqualTo("shared");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * follower가 leader 결과를 기다리며 park 될 때까지 대기
+     */
+    private static void waitUntilParked(AtomicReference<Thread> thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.get() == null || thread.get().getState() != Thread.State.WAITING) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("follower did not start waiting");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
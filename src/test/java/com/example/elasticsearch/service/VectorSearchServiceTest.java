@@ -0,0 +1,77 @@
+package com.example.elasticsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.example.elasticsearch.dto.ProductFilter;
+import com.example.elasticsearch.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * VectorSearchService 배치 검색 실패 격리 테스트 (임베딩 / ES는 mock)
+ */
+class VectorSearchServiceTest {
+
+    private EmbeddingService embeddingService;
+    private KnnSearchClient knnSearchClient;
+    private VectorSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        embeddingService = mock(EmbeddingService.class);
+        knnSearchClient = mock(KnnSearchClient.class);
+        service = new VectorSearchService(mock(ElasticsearchClient.class), knnSearchClient, embeddingService,
+                new StageMetrics(new SimpleMeterRegistry()), 15, 40, 1000, 100);
+        ReflectionTestUtils.setField(service, "rrfWindowSize", 50);
+        ReflectionTestUtils.setField(service, "semanticCacheEnabled", false);
+        service.init();
+    }
+
+    @Test
+    void batchEmbeddingFailureFallsBackToPerQueryEmbedding() throws Exception {
+        when(embeddingService.getQueryVectors(anyList())).thenThrow(new IllegalStateException("batch rejected"));
+        when(embeddingService.getVector("좋은 질문")).thenReturn(new float[]{1f, 0f});
+        when(embeddingService.getVector("나쁜 질문")).thenThrow(new IllegalStateException("text rejected"));
+        when(knnSearchClient.msearch(eq("products_korean"), anyList(), eq(Product.class)))
+                .thenThrow(new IOException("connection reset"));
+
+        List<VectorSearchService.BatchResult> results =
+                service.vectorSearchBatch(List.of("좋은 질문", "나쁜 질문"), 5, ProductFilter.NONE);
+
+        // 임베딩에 실패한 검색어만 임베딩 오류, 나머지는 검색 단계까지 진행
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).error()).contains("connection reset");
+        assertThat(results.get(1).error()).contains("임베딩 실패").contains("text rejected");
+        assertThat(results).allSatisfy(result -> assertThat(result.products()).isEmpty());
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<KnnSearchBody>> bodies = ArgumentCaptor.forClass(List.class);
+        verify(knnSearchClient).msearch(eq("products_korean"), bodies.capture(), eq(Product.class));
+        assertThat(bodies.getValue()).hasSize(1);
+    }
+
+    @Test
+    void msearchTransportFailureBecomesPerQueryErrors() throws Exception {
+        when(embeddingService.getQueryVectors(anyList())).thenReturn(List.of(new float[]{1f, 0f}, new float[]{0f, 1f}));
+        when(knnSearchClient.msearch(any(), anyList(), any())).thenThrow(new IOException("timeout"));
+
+        List<VectorSearchService.BatchResult> results =
+                service.vectorSearchBatch(List.of("a", "b"), 5, ProductFilter.NONE);
+
+        assertThat(results).extracting(VectorSearchService.BatchResult::error)
+                .allSatisfy(error -> assertThat(error).contains("timeout"));
+    }
+}